@@ -0,0 +1,98 @@
+/*
+ * Woody - Basic Actor model implementation
+ * 
+ * Copyright (C) 2017 Joaquim Rocha <jrocha@gmailbox.org>
+ * 
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package net.uiqui.woody.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.uiqui.woody.api.ActorMailbox;
+import net.uiqui.woody.api.ActorWrapper;
+import net.uiqui.woody.api.invoke.DispatchTable;
+import net.uiqui.woody.api.msg.CallMessage;
+import net.uiqui.woody.api.msg.CastMessage;
+import net.uiqui.woody.api.queue.QueueFactory;
+
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "-XX:+IgnoreUnrecognizedVMOptions", "--add-opens=java.base/java.lang=ALL-UNNAMED" })
+public class ActorMailboxBenchmark {
+	private static final Object[] ADD_ARGS = new Object[] { 1 };
+	private static final Object[] GET_ARGS = new Object[0];
+
+	@Param({ QueueFactory.MPSC, QueueFactory.BLOCKING })
+	private String queue = null;
+
+	private ActorMailbox mailbox = null;
+	private int add = 0;
+	private int get = 0;
+
+	@Setup(Level.Trial)
+	public void setup() throws Exception {
+		mailbox = new ActorMailbox(new ActorWrapper(null, new Counter()), QueueFactory.newQueue(queue));
+		add = DispatchTable.get(Counter.class).indexOf(Counter.class.getMethod("add", int.class));
+		get = DispatchTable.get(Counter.class).indexOf(Counter.class.getMethod("get"));
+	}
+
+	@TearDown(Level.Iteration)
+	public void drain() throws Exception {
+		final CallMessage barrier = new CallMessage(get, GET_ARGS);
+		mailbox.push(barrier);
+		barrier.get();
+	}
+
+	@Benchmark
+	@Threads(1)
+	public void push_1() {
+		mailbox.push(new CastMessage(add, ADD_ARGS));
+	}
+
+	@Benchmark
+	@Threads(4)
+	public void push_4() {
+		mailbox.push(new CastMessage(add, ADD_ARGS));
+	}
+
+	@Benchmark
+	@Threads(16)
+	public void push_16() {
+		mailbox.push(new CastMessage(add, ADD_ARGS));
+	}
+
+	@Benchmark
+	@Threads(64)
+	public void push_64() {
+		mailbox.push(new CastMessage(add, ADD_ARGS));
+	}
+}
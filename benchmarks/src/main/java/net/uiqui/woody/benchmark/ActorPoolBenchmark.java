@@ -0,0 +1,79 @@
+/*
+ * Woody - Basic Actor model implementation
+ * 
+ * Copyright (C) 2017 Joaquim Rocha <jrocha@gmailbox.org>
+ * 
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package net.uiqui.woody.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.uiqui.woody.ActorOptions;
+import net.uiqui.woody.api.ActorFactory;
+import net.uiqui.woody.api.Routing;
+
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "-XX:+IgnoreUnrecognizedVMOptions", "--add-opens=java.base/java.lang=ALL-UNNAMED" })
+public class ActorPoolBenchmark {
+	@Param({ "4", "16" })
+	private int poolSize = 0;
+
+	@Param({ "ROUND_ROBIN", "LEAST_DEPTH", "POWER_OF_TWO", "CONSISTENT_HASH" })
+	private Routing routing = null;
+
+	private Counter pool = null;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		pool = (Counter) ActorFactory.newActor(null, Counter.class, poolSize, new ActorOptions().routing(routing));
+	}
+
+	@TearDown(Level.Iteration)
+	public void drain() {
+		for (int i = 0; i < poolSize; i++) {
+			pool.get();
+		}
+	}
+
+	@Benchmark
+	@Threads(4)
+	public Void cast() {
+		return pool.add(1);
+	}
+
+	@Benchmark
+	@Threads(4)
+	public long call() {
+		return pool.get();
+	}
+}
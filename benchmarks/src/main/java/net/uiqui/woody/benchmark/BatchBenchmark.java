@@ -0,0 +1,83 @@
+/*
+ * Woody - Basic Actor model implementation
+ * 
+ * Copyright (C) 2017 Joaquim Rocha <jrocha@gmailbox.org>
+ * 
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package net.uiqui.woody.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.uiqui.woody.Woody;
+import net.uiqui.woody.api.ActorFactory;
+
+/*
+ * Sends BATCH casts to one actor, one by one or using Woody.batch,
+ * the score is per message
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "-XX:+IgnoreUnrecognizedVMOptions", "--add-opens=java.base/java.lang=ALL-UNNAMED" })
+public class BatchBenchmark {
+	public static final int BATCH = 64;
+
+	private Counter actor = null;
+	private Runnable batch = null;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		actor = (Counter) ActorFactory.newActor(Counter.class);
+		batch = new Runnable() {
+			public void run() {
+				for (int i = 0; i < BATCH; i++) {
+					actor.add(1);
+				}
+			}
+		};
+	}
+
+	@TearDown(Level.Iteration)
+	public void drain() {
+		actor.get();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH)
+	public void single() {
+		batch.run();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH)
+	public void batched() {
+		Woody.batch(batch);
+	}
+}
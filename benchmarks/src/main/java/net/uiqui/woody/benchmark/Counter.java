@@ -0,0 +1,35 @@
+/*
+ * Woody - Basic Actor model implementation
+ * 
+ * Copyright (C) 2017 Joaquim Rocha <jrocha@gmailbox.org>
+ * 
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package net.uiqui.woody.benchmark;
+
+import net.uiqui.woody.annotations.Async;
+
+public class Counter {
+	private long count = 0;
+
+	@Async
+	public Void add(final int delta) {
+		count += delta;
+		return null;
+	}
+
+	@Async
+	public long get() {
+		return count;
+	}
+}
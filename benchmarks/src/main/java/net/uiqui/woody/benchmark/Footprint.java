@@ -0,0 +1,83 @@
+/*
+ * Woody - Basic Actor model implementation
+ * 
+ * Copyright (C) 2017 Joaquim Rocha <jrocha@gmailbox.org>
+ * 
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package net.uiqui.woody.benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+
+import net.uiqui.woody.Woody;
+
+/*
+ * Scale test, creates millions of idle actors and reports the heap used by each one,
+ * discounting the actor instance itself. Not a JMH benchmark, run with:
+ * java -cp target/benchmarks.jar net.uiqui.woody.benchmark.Footprint [light|actor] [count]
+ */
+public class Footprint {
+	public static void main(final String[] args) throws Exception {
+		final String mode = args.length > 0 ? args[0] : "light";
+		final int count = args.length > 1 ? Integer.parseInt(args[1]) : 1000000;
+		final Object[] actors = new Object[count];
+		
+		final long before = heapUsed();
+		final long start = System.nanoTime();
+		
+		for (int i = 0; i < count; i++) {
+			actors[i] = mode.equals("light") ? Woody.newLightActor(Counter.class) : Woody.newActor(Counter.class);
+		}
+		
+		final long elapsed = System.nanoTime() - start;
+		final long used = heapUsed() - before;
+		
+		// The actors must work after being created
+		final Counter last = (Counter) actors[count - 1];
+		last.add(1);
+		
+		if (last.get() != 1) {
+			throw new IllegalStateException("The actor didn't process the messages");
+		}
+		
+		final long instance = instanceSize();
+		
+		System.out.printf("%s: %d actors, %d MB heap, %d bytes per actor (%d bytes of framework), %d ns to create each%n",
+				mode, count, used >> 20, used / count, used / count - instance, elapsed / count);
+	}
+	
+	// Heap used by a plain Counter, the actor state
+	private static long instanceSize() throws InterruptedException {
+		final Object[] counters = new Object[100000];
+		final long before = heapUsed();
+		
+		for (int i = 0; i < counters.length; i++) {
+			counters[i] = new Counter();
+		}
+		
+		final long used = heapUsed() - before;
+		return counters[0] != null ? used / counters.length : 0;
+	}
+	
+	private static long heapUsed() throws InterruptedException {
+		final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+		
+		for (int i = 0; i < 3; i++) {
+			System.gc();
+			Thread.sleep(100);
+		}
+		
+		return memory.getHeapMemoryUsage().getUsed();
+	}
+}
@@ -0,0 +1,116 @@
+/*
+ * Woody - Basic Actor model implementation
+ * 
+ * Copyright (C) 2017 Joaquim Rocha <jrocha@gmailbox.org>
+ * 
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package net.uiqui.woody.benchmark;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.uiqui.woody.api.util.FutureResult;
+
+/*
+ * Compares the CAS based FutureResult with the Semaphore based version,
+ * "local" completes the request on the caller thread, "handoff" completes
+ * it on another thread while the caller waits
+ */
+@State(Scope.Thread)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "-XX:+IgnoreUnrecognizedVMOptions", "--add-opens=java.base/java.lang=ALL-UNNAMED" })
+public class FutureBenchmark {
+	private static final Object REPLY = new Object();
+	
+	private ExecutorService replier = null;
+	
+	// Published like a CallMessage on a mailbox, so the JIT can't scalar replace the future
+	private Future<Object> published = null;
+
+	@Setup(Level.Trial)
+	public void start() {
+		replier = Executors.newSingleThreadExecutor();
+	}
+
+	@TearDown(Level.Trial)
+	public void stop() {
+		replier.shutdownNow();
+	}
+
+	@Benchmark
+	public Object local_cas() throws Exception {
+		final FutureResult<Object> future = new FutureResult<Object>();
+		published = future;
+		future.tryRun();
+		future.setResult(REPLY);
+		return future.get();
+	}
+
+	@Benchmark
+	public Object local_semaphore() throws Exception {
+		final SemaphoreFutureResult<Object> future = new SemaphoreFutureResult<Object>();
+		published = future;
+		future.tryRun();
+		future.setResult(REPLY);
+		return future.get();
+	}
+
+	@Benchmark
+	public Object handoff_cas() throws Exception {
+		final FutureResult<Object> future = new FutureResult<Object>();
+		
+		replier.execute(new Runnable() {
+			public void run() {
+				if (future.tryRun()) {
+					future.setResult(REPLY);
+				}
+			}
+		});
+		
+		return future.get();
+	}
+
+	@Benchmark
+	public Object handoff_semaphore() throws Exception {
+		final SemaphoreFutureResult<Object> future = new SemaphoreFutureResult<Object>();
+		
+		replier.execute(new Runnable() {
+			public void run() {
+				if (future.tryRun()) {
+					future.setResult(REPLY);
+				}
+			}
+		});
+		
+		return future.get();
+	}
+}
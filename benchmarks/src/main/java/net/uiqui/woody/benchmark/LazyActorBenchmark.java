@@ -0,0 +1,88 @@
+/*
+ * Woody - Basic Actor model implementation
+ * 
+ * Copyright (C) 2017 Joaquim Rocha <jrocha@gmailbox.org>
+ * 
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package net.uiqui.woody.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.uiqui.woody.Woody;
+import net.uiqui.woody.api.ActorFactory;
+
+/*
+ * Each iteration creates BATCH fresh lazy references, the score
+ * is the time needed to touch all of them once
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, batchSize = LazyActorBenchmark.BATCH)
+@Measurement(iterations = 10, batchSize = LazyActorBenchmark.BATCH)
+@Fork(value = 1, jvmArgsAppend = { "-XX:+IgnoreUnrecognizedVMOptions", "--add-opens=java.base/java.lang=ALL-UNNAMED" })
+public class LazyActorBenchmark {
+	public static final int BATCH = 1000;
+	private static final String NAME = "lazy-counter";
+
+	private final Counter[] references = new Counter[BATCH];
+	private Counter warm = null;
+	private Counter target = null;
+	private int index = 0;
+
+	@Setup(Level.Trial)
+	public void register() {
+		Woody.register(NAME, new Counter());
+		target = Woody.findActor(NAME);
+		warm = (Counter) ActorFactory.newLazyActor(NAME, Counter.class);
+		warm.add(0);
+	}
+
+	@Setup(Level.Iteration)
+	public void newReferences() {
+		for (int i = 0; i < BATCH; i++) {
+			references[i] = (Counter) ActorFactory.newLazyActor(NAME, Counter.class);
+		}
+
+		index = 0;
+	}
+
+	@TearDown(Level.Iteration)
+	public void drain() {
+		target.get();
+	}
+
+	@Benchmark
+	public Void firstTouch() {
+		return references[index++].add(1);
+	}
+
+	@Benchmark
+	public Void warmTouch() {
+		return warm.add(1);
+	}
+}
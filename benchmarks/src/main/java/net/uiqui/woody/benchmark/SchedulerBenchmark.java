@@ -0,0 +1,98 @@
+/*
+ * Woody - Basic Actor model implementation
+ * 
+ * Copyright (C) 2017 Joaquim Rocha <jrocha@gmailbox.org>
+ * 
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package net.uiqui.woody.benchmark;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.uiqui.woody.lib.Timer;
+import net.uiqui.woody.lib.TimingWheel;
+
+/*
+ * Schedules and cancels a timeout, like a call answered before its deadline,
+ * with "pending" other timeouts already scheduled
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "-XX:+IgnoreUnrecognizedVMOptions", "--add-opens=java.base/java.lang=ALL-UNNAMED" })
+public class SchedulerBenchmark {
+	private static final Runnable NOTHING = new Runnable() {
+		public void run() {
+		}
+	};
+	
+	private static final Executor INLINE = new Executor() {
+		public void execute(final Runnable command) {
+			command.run();
+		}
+	};
+	
+	@Param({ "1000", "300000" })
+	private int pending = 0;
+	
+	private TimingWheel wheel = null;
+	private ScheduledThreadPoolExecutor executor = null;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		wheel = new TimingWheel(10, TimeUnit.MILLISECONDS, 512, INLINE);
+		executor = new ScheduledThreadPoolExecutor(1);
+		executor.setRemoveOnCancelPolicy(true);
+		
+		for (int i = 0; i < pending; i++) {
+			wheel.schedule(1, 0, TimeUnit.HOURS, NOTHING);
+			executor.schedule(NOTHING, 1, TimeUnit.HOURS);
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void stop() {
+		executor.shutdownNow();
+	}
+
+	@Benchmark
+	public boolean wheel() {
+		final Timer timer = wheel.schedule(30000, 0, TimeUnit.MILLISECONDS, NOTHING);
+		return timer.cancel();
+	}
+
+	@Benchmark
+	public boolean executor() {
+		final ScheduledFuture<?> future = executor.schedule(NOTHING, 30000, TimeUnit.MILLISECONDS);
+		return future.cancel(false);
+	}
+}
@@ -0,0 +1,158 @@
+/*
+ * Woody - Basic Actor model implementation
+ * 
+ * Copyright (C) 2017 Joaquim Rocha <jrocha@gmailbox.org>
+ * 
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package net.uiqui.woody.benchmark;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+// Copy of the FutureResult implementation up to 2.4.0, kept for comparison
+public class SemaphoreFutureResult<T> implements Future<T> {
+	private static final int STATE_WAITING = 0;
+	private static final int STATE_RUNNING = 1;
+	private static final int STATE_DONE = 2;
+	private static final int STATE_CANCELED = 3;
+	
+	// Reply
+	private T result = null;
+	private Throwable cause = null;
+	
+	// Future
+	private final Semaphore clientParking = new Semaphore(0);
+	private volatile int state = STATE_WAITING;
+
+	// Future implementation
+	public boolean cancel(final boolean mayInterruptIfRunning) {		
+		return tryChangeState(STATE_CANCELED, null, null);
+	}
+
+	public boolean isCancelled() {
+		return state == STATE_CANCELED;
+	}
+
+	public boolean isDone() {
+		return state == STATE_DONE;
+	}
+
+	public T get() throws InterruptedException, ExecutionException {
+		if (state < STATE_DONE) {
+			if (Thread.currentThread() instanceof ForkJoinWorkerThread) {
+				// Lets the pool add a compensation thread while the worker waits
+				ForkJoinPool.managedBlock(new ForkJoinPool.ManagedBlocker() {
+					public boolean block() throws InterruptedException {
+						clientParking.acquire();
+						return true;
+					}
+					
+					public boolean isReleasable() {
+						return state >= STATE_DONE;
+					}
+				});
+			} else {
+				clientParking.acquire();
+			}
+		}
+		
+		return report();
+	}
+
+	public T get(final long timeout, final TimeUnit unit) throws TimeoutException, InterruptedException, ExecutionException {
+		if (state >= STATE_DONE || clientParking.tryAcquire(timeout, unit)) {
+			return report();
+		} else {
+			throw new TimeoutException();
+		}
+	}
+	
+	private T report() throws ExecutionException {
+		if (state == STATE_CANCELED) {
+			throw new CancellationException();
+		}
+		
+		if (cause != null) {
+			throw new ExecutionException(cause);
+		}
+		
+		return result;
+	}
+	
+	// Request management
+	public void setResult(final T result) {
+		tryChangeState(STATE_DONE, result, null);
+	}
+	
+	public void setException(final Throwable cause) {
+		tryChangeState(STATE_DONE, null, cause);
+	}
+	
+	public boolean tryRun() {
+		return tryChangeState(STATE_RUNNING, null, null);
+	}
+	
+	protected T getResult() {
+		return result;
+	}
+	
+	protected Throwable getCause() {
+		return cause;
+	}
+	
+	// Invoked once, after the request is done or canceled
+	protected void done() {
+	}
+	
+	private boolean tryChangeState(final int newState, final T result, final Throwable cause) {
+		if (!changeState(newState, result, cause)) {
+			return false;
+		}
+		
+		if (newState != STATE_RUNNING) {
+			done();
+		}
+		
+		return true;
+	}
+	
+	private synchronized boolean changeState(final int newState, final T result, final Throwable cause) {
+		if (state == STATE_CANCELED || state == STATE_DONE) {
+			return false;
+		}
+		
+		if (state == STATE_RUNNING && newState != STATE_DONE) {
+			return false;
+		}
+		
+		if (newState == STATE_DONE) {
+			this.result = result;
+			this.cause = cause;			
+		}
+		
+		this.state = newState;
+		
+		if (newState != STATE_RUNNING) {
+			clientParking.release();
+		}
+		
+		return true;
+	}
+}
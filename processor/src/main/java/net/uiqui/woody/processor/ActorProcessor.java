@@ -0,0 +1,360 @@
+/*
+ * Woody - Basic Actor model implementation
+ * 
+ * Copyright (C) 2017 Joaquim Rocha <jrocha@gmailbox.org>
+ * 
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package net.uiqui.woody.processor;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+
+/*
+ * Generates a <Class>$$WoodyProxy for each class with Async methods, the proxy sends the calls
+ * to the Woody handler without cglib, and has a typed invoker for each Async method.
+ * Classes that can't be extended from the same package keep using the cglib proxies
+ */
+@SupportedAnnotationTypes(ActorProcessor.ASYNC)
+public class ActorProcessor extends AbstractProcessor {
+	public static final String ASYNC = "net.uiqui.woody.annotations.Async";
+	public static final String SUFFIX = "$$WoodyProxy";
+	
+	private static final String HANDLER = "net.sf.cglib.proxy.InvocationHandler";
+	private static final String SUPPORT = "net.uiqui.woody.api.proxy.GeneratedProxies";
+	
+	@Override
+	public SourceVersion getSupportedSourceVersion() {
+		return SourceVersion.latestSupported();
+	}
+	
+	@Override
+	public boolean process(final Set<? extends TypeElement> annotations, final RoundEnvironment roundEnv) {
+		final Set<TypeElement> actors = new LinkedHashSet<TypeElement>();
+		
+		for (final TypeElement annotation : annotations) {
+			for (final Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+				if (element.getKind() == ElementKind.METHOD) {
+					actors.add((TypeElement) element.getEnclosingElement());
+				}
+			}
+		}
+		
+		for (final TypeElement actor : actors) {
+			final String reason = whyNot(actor);
+			
+			if (reason != null) {
+				processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE, actor + " will use a cglib proxy, " + reason, actor);
+				continue;
+			}
+			
+			try {
+				generate(actor);
+			} catch (final IOException e) {
+				processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Error generating the proxy of " + actor + ": " + e.getMessage(), actor);
+			}
+		}
+		
+		return false;
+	}
+	
+	private String whyNot(final TypeElement type) {
+		if (type.getKind() != ElementKind.CLASS) {
+			return "it isn't a class";
+		}
+		
+		final Set<Modifier> modifiers = type.getModifiers();
+		
+		if (modifiers.contains(Modifier.FINAL) || modifiers.contains(Modifier.ABSTRACT) || modifiers.contains(Modifier.PRIVATE)) {
+			return "the class is final, abstract or private";
+		}
+		
+		if (type.getNestingKind() != NestingKind.TOP_LEVEL) {
+			if (type.getNestingKind() != NestingKind.MEMBER || !modifiers.contains(Modifier.STATIC)) {
+				return "only top level and static nested classes are supported";
+			}
+			
+			for (Element outer = type.getEnclosingElement(); outer instanceof TypeElement; outer = outer.getEnclosingElement()) {
+				if (outer.getModifiers().contains(Modifier.PRIVATE)) {
+					return "the enclosing class is private";
+				}
+			}
+		}
+		
+		final List<ExecutableElement> constructors = ElementFilter.constructorsIn(type.getEnclosedElements());
+		
+		for (final ExecutableElement constructor : constructors) {
+			if (constructor.getParameters().isEmpty() && !constructor.getModifiers().contains(Modifier.PRIVATE)) {
+				return null;
+			}
+		}
+		
+		return "it doesn't have a visible no-arg constructor";
+	}
+	
+	private void generate(final TypeElement type) throws IOException {
+		final PackageElement pkg = processingEnv.getElementUtils().getPackageOf(type);
+		final String packageName = pkg.isUnnamed() ? "" : pkg.getQualifiedName().toString();
+		final String binaryName = processingEnv.getElementUtils().getBinaryName(type).toString();
+		final String simpleName = (packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1)) + SUFFIX;
+		final String typeName = erasure(type.asType());
+		final List<ExecutableElement> methods = overridable(type);
+		
+		final JavaFileObject file = processingEnv.getFiler().createSourceFile(binaryName + SUFFIX, type);
+		final PrintWriter out = new PrintWriter(file.openWriter());
+		
+		try {
+			if (!packageName.isEmpty()) {
+				out.println("package " + packageName + ";");
+				out.println();
+			}
+			
+			out.println("// Generated by " + ActorProcessor.class.getName() + ", don't edit");
+			out.println("@SuppressWarnings({ \"unchecked\", \"rawtypes\", \"deprecation\" })");
+			out.println("public class " + simpleName + " extends " + typeName + " implements net.uiqui.woody.api.proxy.WoodyProxy {");
+			out.println("\tprivate static final Object[] NO_ARGS = new Object[0];");
+			
+			for (int i = 0; i < methods.size(); i++) {
+				out.println("\tprivate static final java.lang.reflect.Method M" + i + " = " + SUPPORT + ".method(" + typeName + ".class, \"" + methods.get(i).getSimpleName() + "\"" + classLiterals(methods.get(i)) + ");");
+			}
+			
+			out.println();
+			out.println("\tprivate final " + HANDLER + " handler;");
+			out.println();
+			out.println("\tpublic " + simpleName + "(final " + HANDLER + " handler) {");
+			out.println("\t\tthis.handler = handler;");
+			out.println("\t}");
+			out.println();
+			out.println("\tpublic " + HANDLER + " woody$handler() {");
+			out.println("\t\treturn handler;");
+			out.println("\t}");
+			
+			for (int i = 0; i < methods.size(); i++) {
+				out.println();
+				writeMethod(out, methods.get(i), i);
+			}
+			
+			out.println();
+			out.println("\tpublic static net.uiqui.woody.api.invoke.Invoker woody$invoker(final java.lang.reflect.Method method) {");
+			
+			for (int i = 0; i < methods.size(); i++) {
+				if (isAsync(methods.get(i))) {
+					writeInvoker(out, typeName, methods.get(i), i);
+				}
+			}
+			
+			out.println("\t\treturn null;");
+			out.println("\t}");
+			out.println("}");
+		} finally {
+			out.close();
+		}
+	}
+	
+	// Public instance methods, the ones declared by Object are only included when overridden
+	private List<ExecutableElement> overridable(final TypeElement type) {
+		final Map<String, ExecutableElement> methods = new LinkedHashMap<String, ExecutableElement>();
+		
+		for (final ExecutableElement method : ElementFilter.methodsIn(processingEnv.getElementUtils().getAllMembers(type))) {
+			final Set<Modifier> modifiers = method.getModifiers();
+			final TypeElement owner = (TypeElement) method.getEnclosingElement();
+			
+			if (!modifiers.contains(Modifier.PUBLIC) || modifiers.contains(Modifier.STATIC) || modifiers.contains(Modifier.FINAL)) {
+				continue;
+			}
+			
+			if (owner.getQualifiedName().contentEquals("java.lang.Object")) {
+				continue;
+			}
+			
+			final String signature = method.getSimpleName() + classLiterals(method);
+			
+			if (!methods.containsKey(signature)) {
+				methods.put(signature, method);
+			}
+		}
+		
+		return new ArrayList<ExecutableElement>(methods.values());
+	}
+	
+	private void writeMethod(final PrintWriter out, final ExecutableElement method, final int index) {
+		final List<? extends VariableElement> parameters = method.getParameters();
+		final TypeMirror returnType = method.getReturnType();
+		final StringBuilder declaration = new StringBuilder();
+		final StringBuilder args = new StringBuilder();
+		
+		for (int i = 0; i < parameters.size(); i++) {
+			if (i > 0) {
+				declaration.append(", ");
+				args.append(", ");
+			}
+			
+			final String type = erasure(parameters.get(i).asType());
+			final boolean varArgs = method.isVarArgs() && i == parameters.size() - 1;
+			declaration.append("final ").append(varArgs ? type.substring(0, type.length() - 2) + "..." : type).append(" p").append(i);
+			args.append("p").append(i);
+		}
+		
+		out.print("\tpublic " + erasure(returnType) + " " + method.getSimpleName() + "(" + declaration + ")");
+		
+		if (!method.getThrownTypes().isEmpty()) {
+			out.print(" throws ");
+			
+			for (int i = 0; i < method.getThrownTypes().size(); i++) {
+				out.print((i > 0 ? ", " : "") + erasure(method.getThrownTypes().get(i)));
+			}
+		}
+		
+		out.println(" {");
+		out.println("\t\ttry {");
+		
+		final String call = "handler.invoke(this, M" + index + ", " + (parameters.isEmpty() ? "NO_ARGS" : "new Object[] { " + args + " }") + ")";
+		
+		if (returnType.getKind() == TypeKind.VOID) {
+			out.println("\t\t\t" + call + ";");
+		} else if (returnType.getKind().isPrimitive()) {
+			// Same as cglib, null is converted to the default value
+			out.println("\t\t\tfinal Object reply = " + call + ";");
+			out.println("\t\t\treturn reply != null ? (" + boxed(returnType) + ") reply : " + defaultValue(returnType) + ";");
+		} else {
+			out.println("\t\t\treturn " + cast(returnType) + call + ";");
+		}
+		
+		out.println("\t\t} catch (final Throwable e) {");
+		out.println("\t\t\tif (e instanceof RuntimeException) throw (RuntimeException) e;");
+		out.println("\t\t\tif (e instanceof Error) throw (Error) e;");
+		
+		for (final TypeMirror thrown : method.getThrownTypes()) {
+			out.println("\t\t\tif (e instanceof " + erasure(thrown) + ") throw (" + erasure(thrown) + ") e;");
+		}
+		
+		out.println("\t\t\tthrow new java.lang.reflect.UndeclaredThrowableException(e);");
+		out.println("\t\t}");
+		out.println("\t}");
+	}
+	
+	// Calls the actor method without reflection
+	private void writeInvoker(final PrintWriter out, final String typeName, final ExecutableElement method, final int index) {
+		final List<? extends VariableElement> parameters = method.getParameters();
+		final StringBuilder args = new StringBuilder();
+		
+		for (int i = 0; i < parameters.size(); i++) {
+			final TypeMirror type = parameters.get(i).asType();
+			args.append(i > 0 ? ", " : "").append(cast(type)).append("args[").append(i).append("]");
+		}
+		
+		final String call = "((" + typeName + ") target)." + method.getSimpleName() + "(" + args + ")";
+		
+		out.println("\t\tif (M" + index + ".equals(method)) {");
+		out.println("\t\t\treturn new net.uiqui.woody.api.invoke.Invoker() {");
+		out.println("\t\t\t\tpublic Object invoke(final Object target, final Object[] args) throws Throwable {");
+		
+		if (method.getReturnType().getKind() == TypeKind.VOID) {
+			out.println("\t\t\t\t\t" + call + ";");
+			out.println("\t\t\t\t\treturn null;");
+		} else {
+			out.println("\t\t\t\t\treturn " + call + ";");
+		}
+		
+		out.println("\t\t\t\t}");
+		out.println("\t\t\t};");
+		out.println("\t\t}");
+		out.println();
+	}
+	
+	private static boolean isAsync(final ExecutableElement method) {
+		for (final AnnotationMirror annotation : method.getAnnotationMirrors()) {
+			final TypeElement type = (TypeElement) annotation.getAnnotationType().asElement();
+			
+			if (type.getQualifiedName().contentEquals(ASYNC)) {
+				return true;
+			}
+		}
+		
+		return false;
+	}
+	
+	private String classLiterals(final ExecutableElement method) {
+		final StringBuilder builder = new StringBuilder();
+		
+		for (final VariableElement parameter : method.getParameters()) {
+			builder.append(", ").append(erasure(parameter.asType())).append(".class");
+		}
+		
+		return builder.toString();
+	}
+	
+	private String erasure(final TypeMirror type) {
+		return processingEnv.getTypeUtils().erasure(type).toString();
+	}
+	
+	// Objects are passed without a cast, primitives are unboxed
+	private String cast(final TypeMirror type) {
+		if (type.getKind().isPrimitive()) {
+			return "(" + boxed(type) + ") ";
+		}
+		
+		final String name = erasure(type);
+		return name.equals("java.lang.Object") ? "" : "(" + name + ") ";
+	}
+	
+	private String boxed(final TypeMirror type) {
+		return processingEnv.getTypeUtils().boxedClass(processingEnv.getTypeUtils().getPrimitiveType(type.getKind())).getQualifiedName().toString();
+	}
+	
+	private static String defaultValue(final TypeMirror type) {
+		switch (type.getKind()) {
+		case BOOLEAN:
+			return "false";
+		case CHAR:
+			return "'\\0'";
+		case LONG:
+			return "0L";
+		case FLOAT:
+			return "0F";
+		case DOUBLE:
+			return "0D";
+		case BYTE:
+			return "(byte) 0";
+		case SHORT:
+			return "(short) 0";
+		default:
+			return "0";
+		}
+	}
+}
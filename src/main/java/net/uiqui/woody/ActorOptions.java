@@ -0,0 +1,263 @@
+/*
+ * Woody - Basic Actor model implementation
+ * 
+ * Copyright (C) 2017 Joaquim Rocha <jrocha@gmailbox.org>
+ * 
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package net.uiqui.woody;
+
+import net.uiqui.woody.annotations.Affinity;
+import net.uiqui.woody.annotations.Mailbox;
+import net.uiqui.woody.api.OverflowPolicy;
+import net.uiqui.woody.api.PoolListener;
+import net.uiqui.woody.api.Routing;
+import net.uiqui.woody.api.store.StateStore;
+import net.uiqui.woody.lib.Dispatcher;
+import net.uiqui.woody.lib.Dispatchers;
+import net.uiqui.woody.lib.WaitStrategy;
+
+public class ActorOptions {
+	private static final long DEFAULT_CALL_TIMEOUT = defaultCallTimeout();
+	
+	private int capacity = 0;
+	private OverflowPolicy overflow = OverflowPolicy.BLOCK;
+	private Dispatcher dispatcher = Dispatcher.getDefault();
+	private WaitStrategy waitStrategy = null;
+	private long callTimeout = DEFAULT_CALL_TIMEOUT;
+	private Routing routing = Routing.ROUND_ROBIN;
+	private int maxPoolSize = 0;
+	private int resizeThreshold = 10;
+	private long idleTimeout = 30000L;
+	private PoolListener poolListener = null;
+	private int maxActive = 0;
+	private StateStore stateStore = null;
+	// Set explicitly, kept when the options are merged with the class annotations
+	private boolean capacitySet = false;
+	private boolean overflowSet = false;
+	private boolean affinitySet = false;
+
+	public static ActorOptions of(final Class<?> clazz) {
+		final ActorOptions options = new ActorOptions();
+		final Mailbox mailbox = clazz.getAnnotation(Mailbox.class);
+		
+		if (mailbox != null) {
+			options.capacity(mailbox.capacity());
+			options.overflow(mailbox.overflow());
+		}
+		
+		final Affinity affinity = clazz.getAnnotation(Affinity.class);
+		
+		if (affinity != null) {
+			if (affinity.pinned()) {
+				options.pinned(affinity.waitStrategy());
+			} else {
+				options.dispatcher(affinity.value());
+			}
+		}
+		
+		return options;
+	}
+	
+	// The class annotations (Mailbox and Affinity), overridden by the values set on the options
+	public static ActorOptions of(final Class<?> clazz, final ActorOptions options) {
+		final ActorOptions annotated = of(clazz);
+		final ActorOptions merged = options.copy();
+		
+		if (!options.capacitySet) {
+			merged.capacity = annotated.capacity;
+		}
+		
+		if (!options.overflowSet) {
+			merged.overflow = annotated.overflow;
+		}
+		
+		if (!options.affinitySet) {
+			merged.dispatcher = annotated.dispatcher;
+			merged.waitStrategy = annotated.waitStrategy;
+		}
+		
+		return merged;
+	}
+
+	public ActorOptions capacity(final int capacity) {
+		if (capacity < 0) {
+			throw new IllegalArgumentException("Mailbox capacity must not be negative");
+		}
+		
+		this.capacity = capacity;
+		this.capacitySet = true;
+		return this;
+	}
+
+	public ActorOptions overflow(final OverflowPolicy overflow) {
+		this.overflow = overflow;
+		this.overflowSet = true;
+		return this;
+	}
+
+	public ActorOptions dispatcher(final Dispatcher dispatcher) {
+		this.dispatcher = dispatcher;
+		this.affinitySet = true;
+		return this;
+	}
+
+	// Dispatcher registered on Dispatchers, or created from the woody.dispatcher.<name>.* properties
+	public ActorOptions dispatcher(final String name) {
+		return dispatcher(Dispatchers.get(name));
+	}
+
+	// Each actor (or pool worker) gets its own thread
+	public ActorOptions pinned(final WaitStrategy waitStrategy) {
+		this.waitStrategy = waitStrategy;
+		this.affinitySet = true;
+		return this;
+	}
+
+	// Milliseconds, zero means the callers wait forever
+	public ActorOptions callTimeout(final long callTimeout) {
+		this.callTimeout = callTimeout;
+		return this;
+	}
+
+	// How the messages are distributed by actor pools
+	public ActorOptions routing(final Routing routing) {
+		this.routing = routing;
+		return this;
+	}
+
+	// The pool grows up to maxPoolSize workers, and shrinks back to the size requested on creation
+	public ActorOptions elastic(final int maxPoolSize) {
+		this.maxPoolSize = maxPoolSize;
+		return this;
+	}
+
+	// Average number of messages per worker that makes an elastic pool grow
+	public ActorOptions resizeThreshold(final int resizeThreshold) {
+		this.resizeThreshold = Math.max(resizeThreshold, 1);
+		return this;
+	}
+
+	// Milliseconds a worker must be idle before an elastic pool retires it, or a virtual actor is passivated
+	public ActorOptions idleTimeout(final long idleTimeout) {
+		this.idleTimeout = idleTimeout;
+		return this;
+	}
+
+	public ActorOptions poolListener(final PoolListener poolListener) {
+		this.poolListener = poolListener;
+		return this;
+	}
+
+	// Soft limit of active virtual actors, the least recently used idle ones are passivated first
+	public ActorOptions maxActive(final int maxActive) {
+		this.maxActive = maxActive;
+		return this;
+	}
+
+	// Keeps the state of the passivated virtual actors
+	public ActorOptions stateStore(final StateStore stateStore) {
+		this.stateStore = stateStore;
+		return this;
+	}
+
+	public int getCapacity() {
+		return capacity;
+	}
+	
+	public boolean isBounded() {
+		return capacity > 0;
+	}
+
+	public OverflowPolicy getOverflow() {
+		return overflow;
+	}
+
+	public Dispatcher getDispatcher() {
+		return dispatcher;
+	}
+
+	public boolean isPinned() {
+		return waitStrategy != null;
+	}
+
+	public WaitStrategy getWaitStrategy() {
+		return waitStrategy;
+	}
+
+	public long getCallTimeout() {
+		return callTimeout;
+	}
+
+	public Routing getRouting() {
+		return routing;
+	}
+	
+	public boolean isElastic() {
+		return maxPoolSize > 0;
+	}
+
+	public int getMaxPoolSize() {
+		return maxPoolSize;
+	}
+
+	public int getResizeThreshold() {
+		return resizeThreshold;
+	}
+
+	public long getIdleTimeout() {
+		return idleTimeout;
+	}
+
+	public PoolListener getPoolListener() {
+		return poolListener;
+	}
+	
+	public int getMaxActive() {
+		return maxActive;
+	}
+
+	public StateStore getStateStore() {
+		return stateStore;
+	}
+	
+	private ActorOptions copy() {
+		final ActorOptions copy = new ActorOptions();
+		copy.capacity = capacity;
+		copy.overflow = overflow;
+		copy.dispatcher = dispatcher;
+		copy.waitStrategy = waitStrategy;
+		copy.callTimeout = callTimeout;
+		copy.routing = routing;
+		copy.maxPoolSize = maxPoolSize;
+		copy.resizeThreshold = resizeThreshold;
+		copy.idleTimeout = idleTimeout;
+		copy.poolListener = poolListener;
+		copy.maxActive = maxActive;
+		copy.stateStore = stateStore;
+		copy.capacitySet = capacitySet;
+		copy.overflowSet = overflowSet;
+		copy.affinitySet = affinitySet;
+		return copy;
+	}
+	
+	private static long defaultCallTimeout() {
+		final String propValue = System.getProperty("woody.call.timeout");
+
+		if (propValue != null) {
+			return Long.valueOf(propValue);
+		}
+
+		return 0L;
+	}
+}
@@ -17,10 +17,23 @@
  */
 package net.uiqui.woody;
 
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
 import net.uiqui.woody.api.ActorFactory;
+import net.uiqui.woody.api.ActorTimers;
 import net.uiqui.woody.api.Registry;
+import net.uiqui.woody.api.VirtualActors;
+import net.uiqui.woody.api.cglib.ActorPool;
+import net.uiqui.woody.api.cglib.ActorProxy;
 import net.uiqui.woody.api.error.AlreadyRegisteredException;
+import net.uiqui.woody.api.metrics.Metrics;
+import net.uiqui.woody.api.metrics.MetricsSnapshot;
+import net.uiqui.woody.api.trace.Tracer;
+import net.uiqui.woody.api.trace.Tracing;
 import net.uiqui.woody.lib.NameFactory;
+import net.uiqui.woody.lib.Timer;
 
 public class Woody {
 	private static final Registry registry = new Registry();
@@ -29,21 +42,41 @@ public class Woody {
 	public static <T> T newActor(final Class<T> clazz) {
 		if (ActorFactory.isSearchable(clazz)) {
 			final String name = NameFactory.get();
-			return (T) newActor(name, clazz);
+			return newActor(name, clazz);
 		}
 		
 		return (T) ActorFactory.newActor(clazz);
 	}
 	
+	@SuppressWarnings("unchecked")
+	public static <T> T newActor(final Class<T> clazz, final ActorOptions options) {
+		if (ActorFactory.isSearchable(clazz)) {
+			final String name = NameFactory.get();
+			return newActor(name, clazz, options);
+		}
+		
+		return (T) ActorFactory.newActor(null, clazz, options);
+	}
+	
 	@SuppressWarnings("unchecked")
 	public static <T> T newActor(final Class<T> clazz, final int poolSize) {
 		if (ActorFactory.isSearchable(clazz)) {
 			final String name = NameFactory.get();
-			return (T) newActor(name, clazz, poolSize);
+			return newActor(name, clazz, poolSize);
 		}
 		
 		return (T) ActorFactory.newActor(clazz, poolSize);
 	}	
+	
+	@SuppressWarnings("unchecked")
+	public static <T> T newActor(final Class<T> clazz, final int poolSize, final ActorOptions options) {
+		if (ActorFactory.isSearchable(clazz)) {
+			final String name = NameFactory.get();
+			return newActor(name, clazz, poolSize, options);
+		}
+		
+		return (T) ActorFactory.newActor(null, clazz, poolSize, options);
+	}
 
 	@SuppressWarnings("unchecked")
 	public static <T> T newActor(final String name, final Class<T> clazz) {
@@ -52,12 +85,59 @@ public class Woody {
 		return (T) actor;
 	}
 	
+	@SuppressWarnings("unchecked")
+	public static <T> T newActor(final String name, final Class<T> clazz, final ActorOptions options) {
+		final Object actor = ActorFactory.newActor(name, clazz, options);
+		registerActor(name, actor);
+		return (T) actor;
+	}
+	
 	@SuppressWarnings("unchecked")
 	public static <T> T newActor(final String name, final Class<T> clazz, final int poolSize) {
 		final Object actor = ActorFactory.newActor(name, clazz, poolSize);
 		registerActor(name, actor);
 		return (T) actor;
 	}	
+	
+	@SuppressWarnings("unchecked")
+	public static <T> T newActor(final String name, final Class<T> clazz, final int poolSize, final ActorOptions options) {
+		final Object actor = ActorFactory.newActor(name, clazz, poolSize, options);
+		registerActor(name, actor);
+		return (T) actor;
+	}
+
+	/*
+	 * Lightweight actors have a compact memory layout and an unbounded mailbox,
+	 * for applications with millions of actors
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> T newLightActor(final Class<T> clazz) {
+		if (ActorFactory.isSearchable(clazz)) {
+			final String name = NameFactory.get();
+			return newLightActor(name, clazz);
+		}
+		
+		return (T) ActorFactory.newLightActor(null, clazz);
+	}
+	
+	@SuppressWarnings("unchecked")
+	public static <T> T newLightActor(final String name, final Class<T> clazz) {
+		final Object actor = ActorFactory.newLightActor(name, clazz);
+		registerActor(name, actor);
+		return (T) actor;
+	}
+
+	/*
+	 * Virtual actors, findActor("<prefix><id>") (or get(id)) returns a reference
+	 * to the actor, activated on demand and passivated when idle
+	 */
+	public static <T> VirtualActors<T> newVirtualActors(final String prefix, final Class<T> clazz) {
+		return newVirtualActors(prefix, clazz, ActorOptions.of(clazz));
+	}
+	
+	public static <T> VirtualActors<T> newVirtualActors(final String prefix, final Class<T> clazz, final ActorOptions options) {
+		return VirtualActors.register(prefix, clazz, options);
+	}
 
 	public static void register(final Object obj) {
 		if (ActorFactory.isSearchable(obj)) {
@@ -87,6 +167,60 @@ public class Woody {
 
 	@SuppressWarnings("unchecked")
 	public static <T> T findActor(final String name) {
-		return (T) registry.findActor(name);
+		final Object actor = registry.findActor(name);
+		
+		if (actor == null) {
+			return (T) VirtualActors.find(name);
+		}
+		
+		return (T) actor;
+	}
+	
+	/*
+	 * Runs the casts made by the command without waiting for space on bounded mailboxes,
+	 * returns false if any of the messages was rejected
+	 */
+	public static boolean tryCast(final Runnable command) {
+		return ActorProxy.attempt(command);
+	}
+	
+	public static void batch(final Runnable command) {
+		ActorProxy.batch(command);
+	}
+	
+	/*
+	 * Actor timers, the command makes a cast to the actor after the delay (or on every interval),
+	 * e.g. Woody.castAfter(30000, session, s -> s.expire()). The returned Timer cancels it
+	 */
+	public static <T> Timer castAfter(final long delay, final T actor, final Consumer<T> command) {
+		return ActorTimers.castAfter(delay, actor, command);
+	}
+	
+	public static <T> Timer castInterval(final long interval, final T actor, final Consumer<T> command) {
+		return ActorTimers.castInterval(interval, actor, command);
+	}
+	
+	/*
+	 * Scatter/gather, runs the command on every worker (or partition) of an actor pool
+	 * and returns the results, on pool order
+	 */
+	public static <T, R> List<R> gather(final T actor, final Function<T, R> command) {
+		return ActorPool.gather(actor, command);
+	}
+	
+	/*
+	 * Executor statistics and, when woody.metrics.enabled is set, the metrics of every live actor
+	 */
+	public static MetricsSnapshot getMetrics() {
+		return Metrics.snapshot();
+	}
+	
+	// Traces one in every sampling messages
+	public static void enableTracing(final Tracer tracer, final int sampling) {
+		Tracing.enable(tracer, sampling);
+	}
+	
+	public static void disableTracing() {
+		Tracing.disable();
 	}
 }
@@ -26,4 +26,9 @@ import java.lang.annotation.Target;
 @Retention(RUNTIME)
 @Target(METHOD)
 public @interface Async {
+	// Call timeout in milliseconds, zero uses the actor default
+	long timeout() default 0;
+	
+	// Sends the message without waiting for the reply, the caller receives null
+	boolean oneway() default false;
 }
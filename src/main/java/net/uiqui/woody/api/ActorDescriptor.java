@@ -0,0 +1,193 @@
+/*
+ * Woody - Basic Actor model implementation
+ * 
+ * Copyright (C) 2017 Joaquim Rocha <jrocha@gmailbox.org>
+ * 
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package net.uiqui.woody.api;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import net.sf.cglib.proxy.InvocationHandler;
+import net.uiqui.woody.annotations.Activate;
+import net.uiqui.woody.annotations.Actor;
+import net.uiqui.woody.annotations.Async;
+import net.uiqui.woody.annotations.Passivate;
+import net.uiqui.woody.annotations.Self;
+import net.uiqui.woody.api.cglib.ProxyFactory;
+import net.uiqui.woody.api.error.WoodyException;
+import net.uiqui.woody.api.invoke.DispatchTable;
+import net.uiqui.woody.api.proxy.GeneratedProxies;
+
+/*
+ * Everything Woody needs to know about an actor class, computed once and shared
+ * by all the instances of the class
+ */
+public class ActorDescriptor {
+	private static final ClassValue<ActorDescriptor> DESCRIPTORS = new ClassValue<ActorDescriptor>() {
+		protected ActorDescriptor computeValue(final Class<?> type) {
+			return new ActorDescriptor(type);
+		}
+	};
+	
+	private final Class<?> type;
+	private final DispatchTable table;
+	private final long[] timeouts;
+	private final Field[] selfFields;
+	private final Field[] actorFields;
+	private final Method activate;
+	private final Method passivate;
+	private volatile Class<?> proxyClass = null;
+	
+	private ActorDescriptor(final Class<?> type) {
+		this.type = type;
+		this.table = DispatchTable.get(type);
+		this.timeouts = new long[table.size()];
+		
+		for (int i = 0; i < timeouts.length; i++) {
+			final Async async = table.getMethod(i).getAnnotation(Async.class);
+			timeouts[i] = TimeUnit.MILLISECONDS.toNanos(async.timeout());
+		}
+		
+		final List<Field> selfFields = new ArrayList<Field>();
+		final List<Field> actorFields = new ArrayList<Field>();
+		
+		for (final Field field : type.getDeclaredFields()) {
+			final Self self = field.getAnnotation(Self.class);
+			
+			if (self != null && field.getType().equals(String.class)) {
+				field.setAccessible(true);
+				selfFields.add(field);
+			}
+			
+			final Actor actorRef = field.getAnnotation(Actor.class);
+			
+			if (actorRef != null && actorRef.value() != null) {
+				field.setAccessible(true);
+				actorFields.add(field);
+			}
+		}
+		
+		this.selfFields = selfFields.toArray(new Field[selfFields.size()]);
+		this.actorFields = actorFields.toArray(new Field[actorFields.size()]);
+		this.activate = hook(type, Activate.class);
+		this.passivate = hook(type, Passivate.class);
+	}
+	
+	private static Method hook(final Class<?> type, final Class<? extends Annotation> annotation) {
+		for (final Method method : type.getMethods()) {
+			if (method.isAnnotationPresent(annotation)) {
+				return method;
+			}
+		}
+		
+		return null;
+	}
+	
+	public static ActorDescriptor of(final Class<?> type) {
+		return DESCRIPTORS.get(type);
+	}
+	
+	public Class<?> getType() {
+		return type;
+	}
+	
+	public DispatchTable getTable() {
+		return table;
+	}
+	
+	// Only classes with Async methods can be actors
+	public boolean isValid() {
+		return table.size() > 0;
+	}
+	
+	// The actor has a Self field, so it needs a name
+	public boolean isSearchable() {
+		return selfFields.length > 0;
+	}
+	
+	// Nanoseconds, zero when the Async annotation doesn't define a timeout
+	public long getTimeout(final int index) {
+		return timeouts[index];
+	}
+	
+	public void inject(final Object actor, final String name) {
+		try {
+			for (final Field field : selfFields) {
+				field.set(actor, name);
+			}
+			
+			for (final Field field : actorFields) {
+				final Object lazyActor = ActorFactory.newLazyActor(field.getAnnotation(Actor.class).value(), field.getType());
+				field.set(actor, lazyActor);
+			}
+		} catch (final Exception e) {
+			throw new RuntimeException("Error accessing actor fields", e);
+		}
+	}
+	
+	// Virtual actors only, the state is passed to the Activate method if it has a parameter
+	public void activate(final Object actor, final Object state) {
+		if (activate == null) {
+			return;
+		}
+		
+		if (activate.getParameterTypes().length == 1) {
+			invokeHook(activate, actor, state);
+		} else {
+			invokeHook(activate, actor);
+		}
+	}
+	
+	public boolean isPassivating() {
+		return passivate != null;
+	}
+	
+	// Virtual actors only, returns the state to save
+	public Object passivate(final Object actor) {
+		return passivate != null ? invokeHook(passivate, actor) : null;
+	}
+	
+	private static Object invokeHook(final Method method, final Object actor, final Object... args) {
+		try {
+			return method.invoke(actor, args);
+		} catch (final InvocationTargetException e) {
+			throw new WoodyException("Error invoking method '" + method + "'", e.getTargetException());
+		} catch (final IllegalAccessException e) {
+			throw new WoodyException("Error invoking method '" + method + "'", e);
+		}
+	}
+	
+	public Object newProxy(final InvocationHandler handler) {
+		if (GeneratedProxies.isAvailable(type)) {
+			return GeneratedProxies.newProxy(type, handler);
+		}
+		
+		Class<?> proxyClass = this.proxyClass;
+		
+		if (proxyClass == null) {
+			// Racing threads get the same class from the cglib cache
+			proxyClass = ProxyFactory.newProxyClass(type, InvocationHandler.class);
+			this.proxyClass = proxyClass;
+		}
+		
+		return ProxyFactory.newProxy(proxyClass, handler);
+	}
+}
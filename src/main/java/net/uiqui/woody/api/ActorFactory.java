@@ -17,34 +17,52 @@
  */
 package net.uiqui.woody.api;
 
-import java.lang.reflect.Field;
-import java.lang.reflect.Method;
-
-import net.sf.cglib.proxy.Enhancer;
-import net.uiqui.woody.annotations.Async;
-import net.uiqui.woody.annotations.Self;
+import net.sf.cglib.proxy.LazyLoader;
+import net.uiqui.woody.ActorOptions;
 import net.uiqui.woody.api.cglib.ActorPool;
 import net.uiqui.woody.api.cglib.ActorProxy;
 import net.uiqui.woody.api.cglib.LazyActor;
+import net.uiqui.woody.api.cglib.LightActor;
+import net.uiqui.woody.api.cglib.ProxyFactory;
 import net.uiqui.woody.api.error.InvalidActorException;
-import net.uiqui.woody.api.util.Ring;
+import net.uiqui.woody.api.proxy.GeneratedProxies;
+import net.uiqui.woody.api.queue.QueueFactory;
+import net.uiqui.woody.lib.Dispatcher;
+import net.uiqui.woody.lib.PinnedDispatcher;
 
 public class ActorFactory {
+	// Actor references can have any type, they don't get a descriptor
+	private static final ClassValue<Class<?>> LAZY_PROXIES = new ClassValue<Class<?>>() {
+		protected Class<?> computeValue(final Class<?> type) {
+			return ProxyFactory.newProxyClass(type, LazyLoader.class);
+		}
+	};
+	
 	public static Object newActor(final String name, final Object obj) {
-		final Class<?> type = obj.getClass();
+		return newActor(name, obj, ActorOptions.of(obj.getClass()));
+	}
+
+	public static Object newActor(final String name, final Object obj, final ActorOptions requested) {
+		final ActorDescriptor descriptor = ActorDescriptor.of(obj.getClass());
+		final ActorOptions options = ActorOptions.of(obj.getClass(), requested);
 		
-		if (!isValidActor(type)) {
-			throw new InvalidActorException("Class " + type.getName() + " is not a valid actor");
+		if (!descriptor.isValid()) {
+			throw new InvalidActorException("Class " + descriptor.getType().getName() + " is not a valid actor");
 		}
 		
+		final ActorProxy proxy = newProxy(name, obj, options);
+		return descriptor.newProxy(proxy);
+	}
+	
+	static ActorProxy newWorker(final String name, final Class<?> type, final ActorOptions options) {
+		return newProxy(name, newInstance(type), options);
+	}
+	
+	static ActorProxy newProxy(final String name, final Object obj, final ActorOptions options) {
 		final ActorWrapper wrapper = new ActorWrapper(name, obj);
-		final ActorMailbox mailbox = new ActorMailbox(wrapper);
-		final ActorProxy proxy = new ActorProxy(type, mailbox);
-		
-		final Enhancer enhancer = new Enhancer();
-		enhancer.setSuperclass(type);
-		enhancer.setCallback(proxy);
-		return enhancer.create();
+		final Dispatcher dispatcher = options.isPinned() ? new PinnedDispatcher(options.getWaitStrategy()) : options.getDispatcher();
+		final ActorMailbox mailbox = new ActorMailbox(wrapper, QueueFactory.newQueue(options.getCapacity()), options.getOverflow(), dispatcher);
+		return new ActorProxy(obj.getClass(), mailbox, options.getCallTimeout());
 	}
 
 	public static Object newActor(final Object obj) {
@@ -56,12 +74,12 @@ public class ActorFactory {
 	}
 	
 	public static Object newActor(final String name, final Class<?> type) throws InvalidActorException {
-		try {
-			final Object obj = type.newInstance();
-			return newActor(name, obj);
-		} catch (final Exception e) {
-			throw new InvalidActorException("Error creating instance of " + type.getName(), e);
-		}
+		return newActor(name, type, ActorOptions.of(type));
+	}
+	
+	public static Object newActor(final String name, final Class<?> type, final ActorOptions options) throws InvalidActorException {
+		final Object obj = newInstance(type);
+		return newActor(name, obj, options);
 	}
 	
 	public static Object newActor(final Class<?> type, final int poolSize) throws InvalidActorException {
@@ -69,38 +87,89 @@ public class ActorFactory {
 	}
 	
 	public static Object newActor(final String name, final Class<?> type, final int poolSize) throws InvalidActorException {
-		final Ring<Object> pool = new Ring<Object>();
+		return newActor(name, type, poolSize, ActorOptions.of(type));
+	}
+	
+	public static Object newActor(final String name, final Class<?> type, final int poolSize, final ActorOptions requested) throws InvalidActorException {
+		final ActorDescriptor descriptor = ActorDescriptor.of(type);
+		final ActorOptions options = ActorOptions.of(type, requested);
+		
+		if (!descriptor.isValid()) {
+			throw new InvalidActorException("Class " + type.getName() + " is not a valid actor");
+		}
+		
+		if (poolSize < 1) {
+			throw new IllegalArgumentException("Pool size must be positive");
+		}
+		
+		if (options.isPinned()) {
+			// One thread per worker, and a new one every time an elastic pool grows
+			throw new IllegalArgumentException("Pools can't have pinned workers");
+		}
+		
+		if (options.isElastic() && (options.getRouting() == Routing.KEY || options.getRouting() == Routing.CONSISTENT_HASH)) {
+			// Resizing would move keys to workers that don't have their state
+			throw new IllegalArgumentException("Partitioned pools can't be elastic");
+		}
+		
+		final ActorProxy[] workers = new ActorProxy[poolSize];
 		
 		for (int i = 0; i < poolSize; i++) {
-			final Object actor = newActor(name, type);
-			pool.add(actor);
+			workers[i] = newWorker(name, type, options);
 		}
 		
-		final ActorPool actorPool = new ActorPool(pool);
-		final Enhancer enhancer = new Enhancer();
-		enhancer.setSuperclass(type);
-		enhancer.setCallback(actorPool);
-		return enhancer.create();
+		final ActorPool actorPool = new ActorPool(type, workers, options.getRouting());
+		
+		if (options.isElastic()) {
+			PoolResizer.start(actorPool, name, type, options, poolSize);
+		}
+		
+		return descriptor.newProxy(actorPool);
+	}
+	
+	// Single object actor, with an unbounded mailbox allocated only while it has messages
+	public static Object newLightActor(final String name, final Class<?> type) throws InvalidActorException {
+		final ActorDescriptor descriptor = ActorDescriptor.of(type);
+		
+		if (!descriptor.isValid()) {
+			throw new InvalidActorException("Class " + type.getName() + " is not a valid actor");
+		}
+		
+		final ActorOptions options = ActorOptions.of(type);
+		
+		if (options.isPinned()) {
+			// The thread would be kept even while the actor is idle
+			throw new IllegalArgumentException("Light actors can't be pinned");
+		}
+		
+		if (options.isBounded()) {
+			throw new IllegalArgumentException("Light actors can't have bounded mailboxes");
+		}
+		
+		final LightActor actor = new LightActor(name, newInstance(type), options.getDispatcher());
+		return descriptor.newProxy(actor);
 	}
 	
 	public static Object newLazyActor(final String name, final Class<?> type) {
 		final LazyActor lazyActor = new LazyActor(name);
-		final Enhancer enhancer = new Enhancer();
-		enhancer.setSuperclass(type);
-		enhancer.setCallback(lazyActor);
-		return enhancer.create();
+		
+		if (GeneratedProxies.isAvailable(type)) {
+			return GeneratedProxies.newProxy(type, lazyActor);
+		}
+		
+		return ProxyFactory.newProxy(LAZY_PROXIES.get(type), lazyActor);
 	}	
 	
-	public static boolean isValidActor(final Class<?> clazz) {
-		for (final Method method : clazz.getMethods()) {
-			final Async async = method.getAnnotation(Async.class);
-			
-			if (async != null) {
-				return true;
-			}
+	static Object newInstance(final Class<?> type) throws InvalidActorException {
+		try {
+			return type.newInstance();
+		} catch (final Exception e) {
+			throw new InvalidActorException("Error creating instance of " + type.getName(), e);
 		}
-		
-		return false;
+	}
+	
+	public static boolean isValidActor(final Class<?> clazz) {
+		return ActorDescriptor.of(clazz).isValid();
 	}
 	
 	public static boolean isValidActor(final Object obj) {
@@ -108,16 +177,7 @@ public class ActorFactory {
 	}
 	
 	public static boolean isSearchable(final Class<?> clazz) {
-		for (final Field field : clazz.getDeclaredFields()) {
-			final Class<?> type = field.getType();
-			final Self self = field.getAnnotation(Self.class);
-
-			if (self != null && type.equals(String.class)) {
-				return true;
-			}
-		}
-		
-		return false;
+		return ActorDescriptor.of(clazz).isSearchable();
 	}
 	
 	public static boolean isSearchable(final Object obj) {
@@ -17,53 +17,254 @@
  */
 package net.uiqui.woody.api;
 
-import java.util.Queue;
-import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
 
+import net.uiqui.woody.api.error.MailboxFullException;
+import net.uiqui.woody.api.metrics.ActorMetrics;
 import net.uiqui.woody.api.msg.CallMessage;
 import net.uiqui.woody.api.msg.CastMessage;
-import net.uiqui.woody.lib.Runner;
+import net.uiqui.woody.api.msg.Message;
+import net.uiqui.woody.api.msg.MessagePool;
+import net.uiqui.woody.api.msg.MessageSink;
+import net.uiqui.woody.api.queue.MessageQueue;
+import net.uiqui.woody.api.queue.QueueFactory;
+import net.uiqui.woody.lib.Dispatcher;
 
-public class ActorMailbox {
-	private final Queue<Object> queue = new LinkedBlockingQueue<Object>();
-	private final AtomicBoolean running = new AtomicBoolean(false);
+public class ActorMailbox implements Runnable, MessageSink {
+	private static final AtomicIntegerFieldUpdater<ActorMailbox> RUNNING = AtomicIntegerFieldUpdater.newUpdater(ActorMailbox.class, "running");
 	
+	private static final long MAX_BACKOFF = TimeUnit.MILLISECONDS.toNanos(1);
+	
+	private MessageQueue queue = null;
+	private OverflowPolicy overflow = null;
+	private Dispatcher dispatcher = null;
 	private ActorWrapper actor = null;
+	private MessagePool pool = null;
+	private ActorMetrics metrics = null;
+	private volatile long activations = 0;
+	private volatile int running = 0;
+	// Thread processing the messages, only compared with the current thread
+	private Thread owner = null;
 
 	public ActorMailbox(final ActorWrapper actor) {
+		this(actor, QueueFactory.newQueue(), OverflowPolicy.BLOCK, Dispatcher.getDefault());
+	}
+
+	public ActorMailbox(final ActorWrapper actor, final MessageQueue queue) {
+		this(actor, queue, OverflowPolicy.BLOCK, Dispatcher.getDefault());
+	}
+
+	public ActorMailbox(final ActorWrapper actor, final MessageQueue queue, final OverflowPolicy overflow, final Dispatcher dispatcher) {
 		this.actor = actor;
+		this.queue = queue;
+		this.overflow = overflow;
+		this.dispatcher = dispatcher;
+		this.pool = MessagePool.newPool();
+		this.metrics = actor.getMetrics();
+		
+		if (metrics != null) {
+			metrics.setQueue(queue);
+		}
+	}
+	
+	public MessagePool getPool() {
+		return pool;
+	}
+
+	public String getName() {
+		return actor.getName();
+	}
+	
+	public int size() {
+		return queue.size();
+	}
+	
+	public long getActivations() {
+		return activations;
+	}
+	
+	// Queued messages, plus one while the actor is scheduled or processing
+	public int load() {
+		return queue.size() + running;
 	}
 
 	public void push(final Object msg) {
-		queue.offer(msg);
+		received(msg);
+		
+		if (!queue.offer(msg)) {
+			overflow(msg);
+		}
 
+		schedule();
+	}
+	
+	// Enqueues the messages with a single publication and schedules the actor once
+	public void pushAll(final List<Object> msgs) {
+		for (final Object msg : msgs) {
+			received(msg);
+		}
+		
+		final int accepted = queue.offerAll(msgs);
+		
+		if (accepted > 0) {
+			schedule();
+		}
+		
+		for (int i = accepted; i < msgs.size(); i++) {
+			if (!queue.offer(msgs.get(i))) {
+				try {
+					overflow(msgs.get(i));
+				} catch (final MailboxFullException e) {
+					// The messages after the failed one are never delivered
+					for (int j = i + 1; j < msgs.size(); j++) {
+						((Message) msgs.get(j)).release();
+					}
+					
+					throw e;
+				}
+			}
+			
+			schedule();
+		}
+	}
+	
+	public boolean tryPush(final Object msg) {
+		received(msg);
+		
+		if (!queue.offer(msg)) {
+			if (metrics != null) {
+				metrics.rejected();
+			}
+			
+			return false;
+		}
+		
+		schedule();
+		return true;
+	}
+	
+	private void overflow(final Object msg) {
+		switch (overflow) {
+		case BLOCK:
+			if (owner == Thread.currentThread()) {
+				// Only the actor can make space on its own mailbox, it would wait for ever
+				fail(msg, "The actor can't wait for space on its own mailbox");
+			}
+			
+			long backoff = 1000L;
+			
+			while (!queue.offer(msg)) {
+				LockSupport.parkNanos(backoff);
+				backoff = Math.min(backoff * 2, MAX_BACKOFF);
+			}
+			
+			break;
+		case DROP_NEWEST:
+			reject(msg);
+			break;
+		case DROP_OLDEST:
+			while (!queue.offer(msg)) {
+				final Object oldest = queue.poll();
+				
+				if (oldest != null) {
+					reject(oldest);
+				}
+			}
+			
+			break;
+		case FAIL:
+			fail(msg, "The actor mailbox is full");
+		}
+	}
+	
+	private void fail(final Object msg, final String reason) {
+		if (metrics != null) {
+			metrics.rejected();
+		}
+		
+		((Message) msg).release();
+		throw new MailboxFullException(reason);
+	}
+	
+	private void reject(final Object msg) {
+		if (metrics != null) {
+			metrics.rejected();
+		}
+		
+		if (msg instanceof CallMessage) {
+			((CallMessage) msg).setException(new MailboxFullException("The message was dropped, the actor mailbox is full"));
+		}
+		
+		((Message) msg).release();
+	}
+	
+	private void schedule() {
 		if (tryToRun()) {
-			Runner.run(new Runnable() {
-				public void run() {
-					do {
-						try {
-							do {
-								final Object msg = queue.poll();
+			dispatcher.dispatch(this);
+		}
+	}
 
-								if (msg != null) {
-									if (msg instanceof CastMessage) {
-										actor.handleCast((CastMessage) msg);									
-									} else if (msg instanceof CallMessage) {
-										actor.handleCall((CallMessage) msg);
-									}
-								}
-							} while (queue.size() > 0);
-						} finally {
-							running.set(false);
-						}
-					} while (queue.size() > 0 && tryToRun());
+	public void run() {
+		final int throughput = dispatcher.getThroughput();
+		// Single writer, activations never overlap
+		activations++;
+		owner = Thread.currentThread();
+		
+		try {
+			for (int i = 0; i < throughput; i++) {
+				final Object msg = queue.poll();
+				
+				if (msg == null) {
+					break;
+				}
+				
+				final Message message = (Message) msg;
+				final long start = metrics != null ? metrics.dequeued(message.getEnqueued()) : 0L;
+				
+				if (message.getTrace() != null) {
+					message.getTrace().dequeued();
 				}
-			});
+				
+				if (message instanceof CastMessage) {
+					actor.handleCast((CastMessage) message);
+				} else if (message instanceof CallMessage) {
+					actor.handleCall((CallMessage) message);
+				}
+				
+				if (metrics != null) {
+					metrics.processed(message.getMethod(), start);
+				}
+				
+				message.release();
+			}
+		} finally {
+			owner = null;
+			running = 0;
+			
+			// Messages left behind, or pushed after the last poll, need a new activation
+			if (!queue.isEmpty()) {
+				schedule();
+			}
+		}
+	}
+
+	private void received(final Object msg) {
+		final Message message = (Message) msg;
+		
+		if (message.getTrace() != null) {
+			message.getTrace().enqueued();
+		}
+		
+		if (metrics != null) {
+			message.setEnqueued(System.nanoTime());
+			metrics.received();
 		}
 	}
 
 	private boolean tryToRun() {
-		return running.compareAndSet(false, true);
+		return RUNNING.compareAndSet(this, 0, 1);
 	}
 }
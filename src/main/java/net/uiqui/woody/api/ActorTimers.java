@@ -0,0 +1,52 @@
+/*
+ * Woody - Basic Actor model implementation
+ * 
+ * Copyright (C) 2017 Joaquim Rocha <jrocha@gmailbox.org>
+ * 
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package net.uiqui.woody.api;
+
+import java.util.function.Consumer;
+
+import net.uiqui.woody.lib.Scheduler;
+import net.uiqui.woody.lib.Timer;
+
+/*
+ * Casts sent to an actor by the scheduler, the command runs on the thread pool and
+ * its casts are queued on the actor mailbox like any other message, with the
+ * overflow policy of the mailbox. Each fire runs the command exactly once
+ */
+public class ActorTimers {
+	public static <T> Timer castAfter(final long delay, final T actor, final Consumer<T> command) {
+		return Scheduler.timerAfter(delay, new Delivery<T>(actor, command));
+	}
+	
+	public static <T> Timer castInterval(final long interval, final T actor, final Consumer<T> command) {
+		return Scheduler.timerInterval(interval, new Delivery<T>(actor, command));
+	}
+	
+	private static class Delivery<T> implements Runnable {
+		private final T actor;
+		private final Consumer<T> command;
+		
+		public Delivery(final T actor, final Consumer<T> command) {
+			this.actor = actor;
+			this.command = command;
+		}
+
+		public void run() {
+			command.accept(actor);
+		}
+	}
+}
@@ -17,83 +17,165 @@
  */
 package net.uiqui.woody.api;
 
-import java.lang.reflect.Field;
-import java.lang.reflect.Method;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.function.BiConsumer;
 
-import net.uiqui.woody.annotations.Actor;
-import net.uiqui.woody.annotations.Async;
-import net.uiqui.woody.annotations.Self;
+import net.uiqui.woody.api.error.WoodyException;
+import net.uiqui.woody.api.invoke.DispatchTable;
+import net.uiqui.woody.api.metrics.ActorMetrics;
+import net.uiqui.woody.api.metrics.Metrics;
 import net.uiqui.woody.api.msg.CallMessage;
 import net.uiqui.woody.api.msg.CastMessage;
-import net.uiqui.woody.api.util.HashCode;
+import net.uiqui.woody.api.trace.Trace;
+import net.uiqui.woody.api.util.Deadline;
+import net.uiqui.woody.lib.Runner;
 
 public class ActorWrapper {
-	private final Map<Integer, Method> methods = new HashMap<Integer, Method>();
+	private String name = null;
+	// The dispatch table is taken from the descriptor, one reference less on every actor
+	private ActorDescriptor descriptor = null;
 	private Object target = null;
+	private ActorMetrics metrics = null;
 	
 	public ActorWrapper(final String name, final Object actor) {
+		this.name = name;
 		this.target = actor;
+		this.descriptor = ActorDescriptor.of(actor.getClass());
+		this.metrics = Metrics.newActorMetrics(name, descriptor.getTable());
+		descriptor.inject(actor, name);
+	}
+
+	public String getName() {
+		return name;
+	}
+	
+	public ActorDescriptor getDescriptor() {
+		return descriptor;
+	}
+	
+	public DispatchTable getTable() {
+		return descriptor.getTable();
+	}
+	
+	public ActorMetrics getMetrics() {
+		return metrics;
+	}
+	
+	public void handleCast(final CastMessage msg) {
+		final Trace trace = msg.getTrace();
 		
-		for (final Method method : actor.getClass().getMethods()) {
-			final Async async = method.getAnnotation(Async.class);
-			
-			if (async != null) {
-				final Integer hashCode = HashCode.get(method);
-				methods.put(hashCode, method);
-			}
+		if (trace != null) {
+			trace.started();
 		}
-
+		
 		try {
-			for (final Field field : actor.getClass().getDeclaredFields()) {
-				final Class<?> type = field.getType();
-				final Self self = field.getAnnotation(Self.class);
-
-				if (self != null && type.equals(String.class)) {
-					field.setAccessible(true);
-					field.set(actor, name);
-				}
-				
-				final Actor actorRef = field.getAnnotation(Actor.class);
-
-				if (actorRef != null && actorRef.value() != null) {
-					final Object lazyActor = ActorFactory.newLazyActor(actorRef.value(), type);
-					field.setAccessible(true);
-					field.set(actor, lazyActor);
-				}
+			invoke(msg.getMethod(), msg.getArgs());
+		} catch (final Throwable cause) {
+			if (metrics != null) {
+				metrics.failed(msg.getMethod());
+			}
+			
+			// Nobody is waiting for the outcome, report the error without stopping the actor
+			final Thread thread = Thread.currentThread();
+			final WoodyException error = new WoodyException("Error invoking method '" + descriptor.getTable().getMethod(msg.getMethod()) + "' on class '" + target.getClass().getName() + "'", cause);
+			thread.getUncaughtExceptionHandler().uncaughtException(thread, error);
+		} finally {
+			if (trace != null) {
+				trace.executed();
 			}
-		} catch (final Exception e) {
-			throw new RuntimeException("Error accessing actor fields", e);
 		}
 	}
-	
-	public void handleCast(final CastMessage msg) {
-		invoke(msg.getMethod(), msg.getArgs());
-	}
 
 	public void handleCall(final CallMessage request) {
+		if (request.isExpired()) {
+			// Nobody is waiting for the reply
+			request.expire();
+			return;
+		}
+		
 		if (request.tryRun()) {
+			final long callerDeadline = Deadline.enter(request.getDeadline());
+			final Trace trace = request.getTrace();
+			
+			if (trace != null) {
+				trace.started();
+			}
+			
 			try {
 				final Object reply = invoke(request.getMethod(), request.getArgs());
-				request.setResult(reply);
+				
+				// Before the reply, the caller may resume right after
+				if (trace != null) {
+					trace.executed();
+				}
+				
+				if (descriptor.getTable().isDeferred(request.getMethod())) {
+					replyWhenDone(request, reply);
+				} else {
+					request.setResult(reply);
+				}
 			} catch (final Throwable cause) {
+				if (metrics != null) {
+					metrics.failed(request.getMethod());
+				}
+				
+				if (trace != null) {
+					trace.executed();
+				}
+				
 				request.setException(cause);
+			} finally {
+				Deadline.enter(callerDeadline);
 			}
 		}
 	}
 	
-	private Object invoke(final Integer methodHashCode, final Object[] args) {
-		final Method method = methods.get(methodHashCode);
-		
-		if (method != null) {
-			try {
-				return method.invoke(target, args);
-			} catch (final Exception e) {
-				throw new RuntimeException("Error invoking method '" + method.toString() + "' on class '" + target.getClass().getName() + "'", e);
+	@SuppressWarnings("unchecked")
+	private static void replyWhenDone(final CallMessage request, final Object reply) {
+		if (reply instanceof CompletionStage) {
+			((CompletionStage<Object>) reply).whenComplete(new BiConsumer<Object, Throwable>() {
+				public void accept(final Object result, final Throwable cause) {
+					if (cause == null) {
+						request.setResult(result);
+					} else if (cause instanceof CompletionException && cause.getCause() != null) {
+						request.setException(cause.getCause());
+					} else {
+						request.setException(cause);
+					}
+				}
+			});
+		} else if (reply instanceof Future) {
+			final Future<Object> future = (Future<Object>) reply;
+			
+			if (future.isDone()) {
+				replyWith(request, future);
+			} else {
+				// Don't block the actor waiting for a future it doesn't control
+				Runner.run(new Runnable() {
+					public void run() {
+						replyWith(request, future);
+					}
+				});
 			}
 		} else {
-			throw new RuntimeException("Method not found on class '" + target.getClass().getName() + "' with hashCode " + methodHashCode);
+			request.setResult(reply);
 		}
 	}
+	
+	private static void replyWith(final CallMessage request, final Future<Object> future) {
+		try {
+			request.setResult(future.get());
+		} catch (final ExecutionException e) {
+			request.setException(e.getCause());
+		} catch (final Throwable cause) {
+			request.setException(cause);
+		}
+	}
+	
+	private Object invoke(final int method, final Object[] args) throws Throwable {
+		return descriptor.getTable().getInvoker(method).invoke(target, args);
+	}
 }
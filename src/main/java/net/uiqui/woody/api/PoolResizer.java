@@ -0,0 +1,155 @@
+/*
+ * Woody - Basic Actor model implementation
+ * 
+ * Copyright (C) 2017 Joaquim Rocha <jrocha@gmailbox.org>
+ * 
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package net.uiqui.woody.api;
+
+import java.lang.ref.WeakReference;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import net.uiqui.woody.ActorOptions;
+import net.uiqui.woody.api.cglib.ActorPool;
+import net.uiqui.woody.api.cglib.ActorProxy;
+import net.uiqui.woody.api.error.WoodyException;
+import net.uiqui.woody.lib.Scheduler;
+import net.uiqui.woody.lib.Timer;
+
+/*
+ * Evaluates an elastic pool on every interval, adding one worker when the average load
+ * reaches the threshold and retiring one worker idle for longer than the idle timeout.
+ * Retired workers process the messages already queued, then are garbage collected
+ */
+public class PoolResizer implements Runnable {
+	private static final long INTERVAL = resizeInterval();
+	
+	private WeakReference<ActorPool> pool = null;
+	private String name = null;
+	private Class<?> type = null;
+	private ActorOptions options = null;
+	private int minSize = 0;
+	private volatile Timer task = null;
+	
+	/*
+	 * Activations seen on the last evaluation and idle since. The evaluations run on the Runner
+	 * threads, one at a time: the wheel only re-arms the timer after the run ends and the executor
+	 * scheduler skips overlapping runs, both hand over through a happens-before edge
+	 */
+	private Map<ActorMailbox, long[]> activity = new IdentityHashMap<ActorMailbox, long[]>();
+	
+	private PoolResizer(final ActorPool pool, final String name, final Class<?> type, final ActorOptions options, final int minSize) {
+		this.pool = new WeakReference<ActorPool>(pool);
+		this.name = name;
+		this.type = type;
+		this.options = options;
+		this.minSize = minSize;
+	}
+	
+	public static void start(final ActorPool pool, final String name, final Class<?> type, final ActorOptions options, final int minSize) {
+		final PoolResizer resizer = new PoolResizer(pool, name, type, options, minSize);
+		resizer.task = Scheduler.timerInterval(INTERVAL, resizer);
+	}
+
+	public void run() {
+		final ActorPool current = pool.get();
+		
+		if (current == null) {
+			// Nobody references the pool anymore
+			if (task != null) {
+				task.cancel();
+			}
+			
+			return;
+		}
+		
+		try {
+			resize(current);
+		} catch (final RuntimeException e) {
+			// Keeps the current size, a failure must not cancel the periodic evaluation
+			final Thread thread = Thread.currentThread();
+			final WoodyException error = new WoodyException("Error resizing the pool of " + type.getName(), e);
+			thread.getUncaughtExceptionHandler().uncaughtException(thread, error);
+		}
+	}
+	
+	private void resize(final ActorPool current) {
+		final ActorProxy[] workers = current.getWorkers();
+		final Map<ActorMailbox, long[]> lastActivity = activity;
+		final long now = System.nanoTime();
+		final long idleTimeout = TimeUnit.MILLISECONDS.toNanos(options.getIdleTimeout());
+		
+		long load = 0;
+		int idlest = -1;
+		long idlestSince = now;
+		activity = new IdentityHashMap<ActorMailbox, long[]>();
+		
+		for (int i = 0; i < workers.length; i++) {
+			final ActorMailbox mailbox = workers[i].getMailbox();
+			final int workerLoad = mailbox.load();
+			final long activations = mailbox.getActivations();
+			long[] state = lastActivity.get(mailbox);
+			
+			if (state == null || workerLoad > 0 || state[0] != activations) {
+				state = new long[] { activations, now };
+			}
+			
+			activity.put(mailbox, state);
+			load += workerLoad;
+			
+			if (now - state[1] >= idleTimeout && state[1] < idlestSince) {
+				idlest = i;
+				idlestSince = state[1];
+			}
+		}
+		
+		final long threshold = options.getResizeThreshold();
+		
+		if (load >= threshold * workers.length && workers.length < options.getMaxPoolSize()) {
+			final ActorProxy[] grown = new ActorProxy[workers.length + 1];
+			System.arraycopy(workers, 0, grown, 0, workers.length);
+			grown[workers.length] = ActorFactory.newWorker(name, type, options);
+			current.setWorkers(grown);
+			resized(workers.length, grown.length);
+		} else if (idlest >= 0 && workers.length > minSize && load < threshold * (workers.length - 1)) {
+			// Only when the remaining workers stay below the threshold, otherwise the pool would grow again
+			final ActorProxy[] shrunk = new ActorProxy[workers.length - 1];
+			System.arraycopy(workers, 0, shrunk, 0, idlest);
+			System.arraycopy(workers, idlest + 1, shrunk, idlest, workers.length - idlest - 1);
+			current.setWorkers(shrunk);
+			activity.remove(workers[idlest].getMailbox());
+			resized(workers.length, shrunk.length);
+		}
+	}
+	
+	private void resized(final int previousSize, final int newSize) {
+		final PoolListener listener = options.getPoolListener();
+		
+		if (listener != null) {
+			listener.resized(name, previousSize, newSize);
+		}
+	}
+	
+	private static long resizeInterval() {
+		final String propValue = System.getProperty("woody.pool.resize.interval");
+
+		if (propValue != null) {
+			return Long.valueOf(propValue);
+		}
+
+		return 1000L;
+	}
+}
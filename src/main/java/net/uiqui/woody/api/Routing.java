@@ -0,0 +1,48 @@
+/*
+ * Woody - Basic Actor model implementation
+ * 
+ * Copyright (C) 2017 Joaquim Rocha <jrocha@gmailbox.org>
+ * 
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package net.uiqui.woody.api;
+
+import net.uiqui.woody.api.route.ConsistentHashRouter;
+import net.uiqui.woody.api.route.KeyRouter;
+import net.uiqui.woody.api.route.LeastDepthRouter;
+import net.uiqui.woody.api.route.PowerOfTwoRouter;
+import net.uiqui.woody.api.route.RoundRobinRouter;
+import net.uiqui.woody.api.route.Router;
+
+public enum Routing {
+	ROUND_ROBIN,
+	LEAST_DEPTH,
+	POWER_OF_TWO,
+	CONSISTENT_HASH,
+	KEY;
+	
+	public Router newRouter(final Class<?> type, final int workers) {
+		switch (this) {
+		case KEY:
+			return new KeyRouter(type, workers);
+		case LEAST_DEPTH:
+			return new LeastDepthRouter();
+		case POWER_OF_TWO:
+			return new PowerOfTwoRouter();
+		case CONSISTENT_HASH:
+			return new ConsistentHashRouter(workers);
+		default:
+			return new RoundRobinRouter();
+		}
+	}
+}
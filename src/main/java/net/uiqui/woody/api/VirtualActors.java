@@ -0,0 +1,327 @@
+/*
+ * Woody - Basic Actor model implementation
+ * 
+ * Copyright (C) 2017 Joaquim Rocha <jrocha@gmailbox.org>
+ * 
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package net.uiqui.woody.api;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+import net.uiqui.woody.ActorOptions;
+import net.uiqui.woody.api.cglib.ActorProxy;
+import net.uiqui.woody.api.cglib.VirtualActor;
+import net.uiqui.woody.api.error.InvalidActorException;
+import net.uiqui.woody.api.error.WoodyException;
+import net.uiqui.woody.api.store.StateStore;
+import net.uiqui.woody.lib.Runner;
+import net.uiqui.woody.lib.Scheduler;
+
+/*
+ * Virtual actors of one class, named <prefix><id>. The references are always valid,
+ * the instance is activated by the first message and passivated when idle for longer
+ * than the idle timeout, or when the number of active instances exceeds maxActive
+ * (least recently used first). The Activate and Passivate methods restore and save
+ * the actor state on the StateStore, when one is configured.
+ * maxActive is a soft limit, instances with messages or senders are never passivated,
+ * so the number of active instances can exceed it while they are busy
+ */
+public class VirtualActors<T> {
+	private static final long SWEEP_INTERVAL = sweepInterval();
+	private static final List<VirtualActors<?>> KINDS = new CopyOnWriteArrayList<VirtualActors<?>>();
+	
+	private static final Comparator<Activation> LEAST_RECENTLY_USED = new Comparator<Activation>() {
+		public int compare(final Activation a1, final Activation a2) {
+			return Long.compare(a1.lastUsed, a2.lastUsed);
+		}
+	};
+	
+	private final ConcurrentHashMap<String, Activation> active = new ConcurrentHashMap<String, Activation>();
+	private final AtomicBoolean sweepQueued = new AtomicBoolean(false);
+	private String prefix = null;
+	private Class<T> type = null;
+	private ActorOptions options = null;
+	private ActorDescriptor descriptor = null;
+	
+	private VirtualActors(final String prefix, final Class<T> type, final ActorOptions options) {
+		this.prefix = prefix;
+		this.type = type;
+		this.options = options;
+		this.descriptor = ActorDescriptor.of(type);
+	}
+	
+	public static synchronized <T> VirtualActors<T> register(final String prefix, final Class<T> type, final ActorOptions requested) {
+		if (!ActorDescriptor.of(type).isValid()) {
+			throw new InvalidActorException("Class " + type.getName() + " is not a valid actor");
+		}
+		
+		final ActorOptions options = ActorOptions.of(type, requested);
+		
+		if (options.isPinned()) {
+			// Every activation would start a new thread
+			throw new IllegalArgumentException("Virtual actors can't be pinned");
+		}
+		
+		for (final VirtualActors<?> kind : KINDS) {
+			if (kind.prefix.startsWith(prefix) || prefix.startsWith(kind.prefix)) {
+				throw new IllegalArgumentException("The prefix " + prefix + " overlaps with " + kind.prefix);
+			}
+		}
+		
+		final VirtualActors<T> kind = new VirtualActors<T>(prefix, type, options);
+		KINDS.add(kind);
+		
+		Scheduler.timerInterval(SWEEP_INTERVAL, new Runnable() {
+			public void run() {
+				kind.sweep();
+			}
+		});
+		
+		return kind;
+	}
+	
+	// Reference to the virtual actor with the name, null if no kind uses the prefix
+	public static Object find(final String name) {
+		for (final VirtualActors<?> kind : KINDS) {
+			if (name.startsWith(kind.prefix)) {
+				return kind.get(name.substring(kind.prefix.length()));
+			}
+		}
+		
+		return null;
+	}
+	
+	@SuppressWarnings("unchecked")
+	public T get(final String id) {
+		return (T) descriptor.newProxy(new VirtualActor(prefix + id, this));
+	}
+	
+	public Class<T> getType() {
+		return type;
+	}
+	
+	public int getActiveCount() {
+		return active.size();
+	}
+	
+	// Passivates every idle instance, busy ones are kept
+	public synchronized void passivateAll() {
+		for (final Activation activation : active.values()) {
+			passivate(activation);
+		}
+	}
+	
+	public Object invoke(final String name, final Object obj, final Method method, final Object[] args) throws Throwable {
+		while (true) {
+			Activation activation = active.get(name);
+			
+			if (activation == null) {
+				activation = activate(name);
+			}
+			
+			// Read before entering, it completes when the passivation ends or is abandoned
+			final CompletableFuture<Void> closing = activation.closing;
+			
+			if (activation.enter()) {
+				try {
+					final ActorProxy proxy = await(activation);
+					activation.lastUsed = System.nanoTime();
+					final Object result = proxy.invoke(obj, method, args);
+					// A passivation must find the casts on the mailbox, not on a batch
+					ActorProxy.flush(proxy.getMailbox());
+					return result;
+				} finally {
+					activation.exit();
+				}
+			}
+			
+			// Being passivated, the next activation must see the saved state
+			closing.join();
+		}
+	}
+	
+	private Activation activate(final String name) {
+		final Activation created = new Activation(name);
+		final Activation current = active.putIfAbsent(name, created);
+		
+		if (current != null) {
+			return current;
+		}
+		
+		try {
+			final Object target = ActorFactory.newInstance(type);
+			final ActorProxy proxy = ActorFactory.newProxy(name, target, options);
+			final StateStore store = options.getStateStore();
+			descriptor.activate(target, store != null ? store.load(name) : null);
+			created.target = target;
+			created.ready.complete(proxy);
+		} catch (final RuntimeException e) {
+			active.remove(name, created);
+			created.ready.completeExceptionally(e);
+		}
+		
+		if (options.getMaxActive() > 0 && active.size() > options.getMaxActive() && sweepQueued.compareAndSet(false, true)) {
+			Runner.queue(new Runnable() {
+				public void run() {
+					sweepQueued.set(false);
+					sweep();
+				}
+			});
+		}
+		
+		return created;
+	}
+	
+	private static ActorProxy await(final Activation activation) throws Throwable {
+		try {
+			return activation.ready.join();
+		} catch (final RuntimeException e) {
+			throw e.getCause() != null ? e.getCause() : e;
+		}
+	}
+	
+	synchronized void sweep() {
+		final long now = System.nanoTime();
+		final long idleTimeout = TimeUnit.MILLISECONDS.toNanos(options.getIdleTimeout());
+		final List<Activation> candidates = new ArrayList<Activation>(active.values());
+		
+		for (final Activation activation : candidates) {
+			if (now - activation.lastUsed >= idleTimeout) {
+				passivate(activation);
+			}
+		}
+		
+		final int maxActive = options.getMaxActive();
+		
+		if (maxActive > 0 && active.size() > maxActive) {
+			Collections.sort(candidates, LEAST_RECENTLY_USED);
+			
+			for (final Activation activation : candidates) {
+				if (active.size() <= maxActive) {
+					break;
+				}
+				
+				passivate(activation);
+			}
+		}
+	}
+	
+	private void passivate(final Activation activation) {
+		if (!activation.ready.isDone() || activation.ready.isCompletedExceptionally() || !activation.close()) {
+			return;
+		}
+		
+		final ActorProxy proxy = activation.ready.join();
+		
+		if (proxy.getMailbox().load() > 0) {
+			// Messages still queued, tries again on the next sweep
+			activation.reopen();
+			return;
+		}
+		
+		try {
+			if (descriptor.isPassivating()) {
+				final Object state = descriptor.passivate(activation.target);
+				final StateStore store = options.getStateStore();
+				
+				if (store != null) {
+					if (state != null) {
+						store.save(activation.name, state);
+					} else {
+						store.remove(activation.name);
+					}
+				}
+			}
+		} catch (final RuntimeException e) {
+			final Thread thread = Thread.currentThread();
+			final WoodyException error = new WoodyException("Error passivating actor " + activation.name, e);
+			thread.getUncaughtExceptionHandler().uncaughtException(thread, error);
+		} finally {
+			active.remove(activation.name, activation);
+			activation.closing.complete(null);
+		}
+	}
+	
+	private static long sweepInterval() {
+		final String propValue = System.getProperty("woody.virtual.sweep.interval");
+
+		if (propValue != null) {
+			return Long.valueOf(propValue);
+		}
+
+		return 1000L;
+	}
+	
+	/*
+	 * One instance of a virtual actor, state holds the number of senders using it
+	 * and the CLOSED bit, set by the passivation when there are none. The senders 
+	 * finding it closed wait for closing, completed when the instance is passivated
+	 * or reopened (a new one is used by the next passivation)
+	 */
+	private static class Activation {
+		private static final int CLOSED = 1 << 31;
+		private static final AtomicIntegerFieldUpdater<Activation> STATE = AtomicIntegerFieldUpdater.newUpdater(Activation.class, "state");
+		
+		public final String name;
+		public final CompletableFuture<ActorProxy> ready = new CompletableFuture<ActorProxy>();
+		public volatile CompletableFuture<Void> closing = new CompletableFuture<Void>();
+		public Object target = null;
+		public volatile long lastUsed = System.nanoTime();
+		private volatile int state = 0;
+		
+		public Activation(final String name) {
+			this.name = name;
+		}
+		
+		public boolean enter() {
+			while (true) {
+				final int current = state;
+				
+				if ((current & CLOSED) != 0) {
+					return false;
+				}
+				
+				if (STATE.compareAndSet(this, current, current + 1)) {
+					return true;
+				}
+			}
+		}
+		
+		public void exit() {
+			STATE.decrementAndGet(this);
+		}
+		
+		public boolean close() {
+			return STATE.compareAndSet(this, 0, CLOSED);
+		}
+		
+		// Opened before the swap, a sender reading the new future can always enter
+		public void reopen() {
+			final CompletableFuture<Void> closed = closing;
+			state = 0;
+			closing = new CompletableFuture<Void>();
+			closed.complete(null);
+		}
+	}
+}
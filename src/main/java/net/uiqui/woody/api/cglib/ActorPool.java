@@ -17,18 +17,142 @@
  */
 package net.uiqui.woody.api.cglib;
 
-import net.sf.cglib.proxy.Dispatcher;
-import net.uiqui.woody.api.util.Ring;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
-public class ActorPool implements Dispatcher {
-	private Ring<Object> pool = null;
+import net.sf.cglib.proxy.InvocationHandler;
+import net.uiqui.woody.api.ActorMailbox;
+import net.uiqui.woody.api.Routing;
+import net.uiqui.woody.api.proxy.GeneratedProxies;
+import net.uiqui.woody.api.route.Router;
+import net.uiqui.woody.lib.Runner;
+
+public class ActorPool implements InvocationHandler {
+	// Worker chosen by gather for the calls made on the current thread, only for its own pool
+	private static final ThreadLocal<Target> TARGET = new ThreadLocal<Target>();
+	
+	private Class<?> type = null;
+	private Routing routing = null;
+	private static final Executor GATHER_EXECUTOR = new Executor() {
+		public void execute(final Runnable command) {
+			Runner.run(command);
+		}
+	};
+	
+	// Replaced as a whole when the pool is resized, senders never see a partial update
+	private volatile Workers workers = null;
 	
-	public ActorPool(final Ring<Object> pool) {
-		this.pool = pool;
+	public ActorPool(final Class<?> type, final ActorProxy[] workers, final Routing routing) {
+		this.type = type;
+		this.routing = routing;
+		setWorkers(workers);
 	}
 	
 	@Override
-	public Object loadObject() throws Exception {
-		return pool.next();
+	public Object invoke(final Object obj, final Method method, final Object[] args) throws Throwable {
+		final Target target = TARGET.get();
+		
+		if (target != null && target.pool == this) {
+			return target.worker.invoke(obj, method, args);
+		}
+		
+		final Workers current = workers;
+		final int worker = current.router.route(method, args, current.mailboxes);
+		return current.proxies[worker].invoke(obj, method, args);
+	}
+	
+	/*
+	 * Runs the command once for each worker, in parallel, returns the results on the workers order.
+	 * Actors that aren't pools run the command once
+	 */
+	public static <T, R> List<R> gather(final T actor, final Function<T, R> command) {
+		final ActorPool pool = poolOf(actor);
+		
+		if (pool == null) {
+			return Collections.singletonList(command.apply(actor));
+		}
+		
+		// The workers of the snapshot, a resize while gathering doesn't change them
+		final ActorProxy[] proxies = pool.workers.proxies;
+		final int size = proxies.length;
+		final List<CompletableFuture<R>> replies = new ArrayList<CompletableFuture<R>>(size);
+		
+		for (int i = 0; i < size; i++) {
+			final Target target = new Target(pool, proxies[i]);
+			
+			replies.add(CompletableFuture.supplyAsync(new Supplier<R>() {
+				public R get() {
+					TARGET.set(target);
+					
+					try {
+						return command.apply(actor);
+					} finally {
+						TARGET.remove();
+					}
+				}
+			}, GATHER_EXECUTOR));
+		}
+		
+		final List<R> results = new ArrayList<R>(size);
+		
+		for (final CompletableFuture<R> reply : replies) {
+			try {
+				results.add(reply.join());
+			} catch (final CompletionException e) {
+				throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+			}
+		}
+		
+		return results;
+	}
+	
+	private static ActorPool poolOf(final Object actor) {
+		final InvocationHandler handler = GeneratedProxies.handlerOf(actor);
+		return handler instanceof ActorPool ? (ActorPool) handler : null;
+	}
+	
+	public ActorProxy[] getWorkers() {
+		return workers.proxies.clone();
+	}
+	
+	public void setWorkers(final ActorProxy[] proxies) {
+		workers = new Workers(proxies.clone(), routing.newRouter(type, proxies.length));
+	}
+	
+	public int size() {
+		return workers.proxies.length;
+	}
+	
+	private static class Target {
+		public final ActorPool pool;
+		public final ActorProxy worker;
+		
+		public Target(final ActorPool pool, final ActorProxy worker) {
+			this.pool = pool;
+			this.worker = worker;
+		}
+	}
+	
+	private static class Workers {
+		public final ActorProxy[] proxies;
+		public final ActorMailbox[] mailboxes;
+		public final Router router;
+		
+		public Workers(final ActorProxy[] proxies, final Router router) {
+			this.proxies = proxies;
+			this.router = router;
+			this.mailboxes = new ActorMailbox[proxies.length];
+			
+			for (int i = 0; i < proxies.length; i++) {
+				mailboxes[i] = proxies[i].getMailbox();
+			}
+		}
 	}
 }
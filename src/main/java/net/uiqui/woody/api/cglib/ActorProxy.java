@@ -18,64 +18,284 @@
 package net.uiqui.woody.api.cglib;
 
 import java.lang.reflect.Method;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import net.sf.cglib.proxy.InvocationHandler;
-import net.uiqui.woody.annotations.Async;
+import net.uiqui.woody.api.ActorDescriptor;
 import net.uiqui.woody.api.ActorMailbox;
+import net.uiqui.woody.api.error.MailboxFullException;
 import net.uiqui.woody.api.error.NotAvailableException;
+import net.uiqui.woody.api.invoke.CallType;
+import net.uiqui.woody.api.invoke.DispatchTable;
 import net.uiqui.woody.api.msg.CallMessage;
 import net.uiqui.woody.api.msg.CastMessage;
-import net.uiqui.woody.api.util.HashCode;
+import net.uiqui.woody.api.msg.MessageSink;
+import net.uiqui.woody.api.msg.StageCallMessage;
+import net.uiqui.woody.api.trace.Trace;
+import net.uiqui.woody.api.trace.Tracing;
+import net.uiqui.woody.api.util.Deadline;
 
 public class ActorProxy implements InvocationHandler {
-	private final Map<Integer, CallType> methods = new HashMap<Integer, CallType>();
+	// Thread confined, so tryCast and batch don't add shared writes to the send path
+	private static final ThreadLocal<Sender> SENDER = new ThreadLocal<Sender>() {
+		protected Sender initialValue() {
+			return new Sender();
+		}
+	};
+	
+	private ActorDescriptor descriptor = null;
+	private DispatchTable table = null;
+	private long callTimeout = 0L;
 	private ActorMailbox mailbox = null;
 	
-	public ActorProxy(final Class<?> clazz, final ActorMailbox mailbox) {
+	public ActorProxy(final Class<?> clazz, final ActorMailbox mailbox, final long callTimeout) {
 		this.mailbox = mailbox;
-		
-		for (final Method method : clazz.getMethods()) {
-			final Async async = method.getAnnotation(Async.class);
-			
-			if (async != null) {
-				final Integer hashCode = HashCode.get(method);
-				
-				if (method.getReturnType() == Void.class) {
-					methods.put(hashCode, CallType.CAST);
-				} else {
-					methods.put(hashCode, CallType.CALL);
-				}
-			}
-		}
+		this.descriptor = ActorDescriptor.of(clazz);
+		this.table = descriptor.getTable();
+		this.callTimeout = TimeUnit.MILLISECONDS.toNanos(callTimeout);
+	}
+
+	public ActorMailbox getMailbox() {
+		return mailbox;
 	}
 
 	@Override
 	public Object invoke(final Object obj, final Method method, final Object[] args) throws Throwable {
-		final Integer hashCode = HashCode.get(method);
-		final CallType callType = methods.get(hashCode);
+		final int index = table.indexOf(method);
 		
-		if (callType == null) {
+		if (index < 0) {
 			throw new NotAvailableException("The method " + method.getName() + " isn't exposed");
 		}
 		
+		final CallType callType = table.getCallType(index);
+		final Trace trace = Tracing.sample(mailbox.getName(), method, callType == CallType.CALL);
+		
 		switch (callType) {
 		case CAST:
-			final CastMessage castMessage = new CastMessage(hashCode, args);
-			mailbox.push(castMessage);
+			final CastMessage castMessage = mailbox.getPool().newCast(index, args);
+			castMessage.setTrace(trace);
+			push(castMessage);
 			break;
 		case CALL:
-			final CallMessage callMessage = new CallMessage(hashCode, args);
-			mailbox.push(callMessage);
-			return callMessage.get();
+			final CallMessage callMessage = mailbox.getPool().newCall(index, args);
+			callMessage.setDeadline(deadline(index));
+			callMessage.setTrace(trace);
+			
+			if (!push(callMessage)) {
+				throw new MailboxFullException("The actor mailbox is full");
+			}
+			
+			try {
+				return await(callMessage);
+			} finally {
+				if (trace != null) {
+					trace.resumed();
+				}
+				
+				callMessage.release();
+			}
+		case FUTURE:
+			final CallMessage futureMessage = new CallMessage(index, args);
+			futureMessage.setDeadline(deadline(index));
+			futureMessage.setTrace(trace);
+			futureMessage.expireOnDeadline();
+			
+			if (!push(futureMessage)) {
+				throw new MailboxFullException("The actor mailbox is full");
+			}
+			
+			return futureMessage;
+		case STAGE:
+			final StageCallMessage stageMessage = new StageCallMessage(index, args);
+			stageMessage.setDeadline(deadline(index));
+			stageMessage.setTrace(trace);
+			stageMessage.expireOnDeadline();
+			
+			if (!push(stageMessage)) {
+				throw new MailboxFullException("The actor mailbox is full");
+			}
+			
+			return stageMessage.getReply();
 		}
 		
 		return null;
 	}
 
-	private static enum CallType {
-		CAST,
-		CALL
+	private long deadline(final int index) {
+		final long methodTimeout = descriptor.getTimeout(index);
+		return deadline(methodTimeout > 0 ? methodTimeout : callTimeout);
+	}
+	
+	// Nanoseconds, the caller deadline is kept when it expires first
+	static long deadline(final long timeout) {
+		final long callerDeadline = Deadline.current();
+		
+		if (timeout > 0) {
+			return Deadline.earliest(callerDeadline, Deadline.after(timeout));
+		}
+		
+		return callerDeadline;
+	}
+	
+	static Object await(final CallMessage msg) throws Throwable {
+		try {
+			if (msg.getDeadline() == Deadline.NONE) {
+				return msg.get();
+			}
+			
+			try {
+				return msg.get(Deadline.remaining(msg.getDeadline()), TimeUnit.NANOSECONDS);
+			} catch (final TimeoutException e) {
+				// The reply may have arrived meanwhile, otherwise the message is skipped by the actor
+				msg.expire();
+				return msg.get();
+			}
+		} catch (final ExecutionException e) {
+			throw e.getCause();
+		}
+	}
+	
+	private boolean push(final Object msg) {
+		final Sender sender = SENDER.get();
+		
+		if (batched(sender, mailbox, msg)) {
+			return true;
+		}
+		
+		final Attempt attempt = sender.attempt;
+		
+		if (attempt.active) {
+			if (mailbox.tryPush(msg)) {
+				return true;
+			}
+			
+			attempt.rejected = true;
+			return false;
+		}
+		
+		mailbox.push(msg);
+		return true;
+	}
+	
+	// True when the cast was collected by the batch running on the current thread
+	static boolean batched(final MessageSink sink, final Object msg) {
+		return batched(SENDER.get(), sink, msg);
+	}
+	
+	private static boolean batched(final Sender sender, final MessageSink sink, final Object msg) {
+		final Batch batch = sender.batch;
+		
+		if (batch.depth > 0) {
+			if (msg instanceof CastMessage) {
+				batch.add(sink, msg);
+				return true;
+			}
+			
+			// Calls must not overtake the casts already collected for the actor
+			batch.flush(sink);
+		}
+		
+		return false;
+	}
+	
+	// Pushes the casts to the sink collected by the batch running on the current thread
+	public static void flush(final MessageSink sink) {
+		final Batch batch = SENDER.get().batch;
+		
+		if (batch.depth > 0) {
+			batch.flush(sink);
+		}
+	}
+	
+	public static boolean attempt(final Runnable command) {
+		final Attempt attempt = SENDER.get().attempt;
+		final boolean wasActive = attempt.active;
+		final boolean wasRejected = attempt.rejected;
+		
+		attempt.active = true;
+		attempt.rejected = false;
+		
+		try {
+			command.run();
+			return !attempt.rejected;
+		} catch (final MailboxFullException e) {
+			attempt.rejected = true;
+			return false;
+		} finally {
+			attempt.active = wasActive;
+			attempt.rejected = wasRejected || attempt.rejected;
+		}
+	}
+	
+	public static void batch(final Runnable command) {
+		final Batch batch = SENDER.get().batch;
+		
+		batch.depth++;
+		
+		try {
+			command.run();
+		} finally {
+			if (--batch.depth == 0) {
+				batch.flushAll();
+			}
+		}
+	}
+	
+	private static class Sender {
+		public final Batch batch = new Batch();
+		public final Attempt attempt = new Attempt();
+	}
+	
+	private static class Batch {
+		public int depth = 0;
+		private final Map<MessageSink, List<Object>> pending = new LinkedHashMap<MessageSink, List<Object>>();
+		
+		public void add(final MessageSink sink, final Object msg) {
+			List<Object> msgs = pending.get(sink);
+			
+			if (msgs == null) {
+				msgs = new ArrayList<Object>();
+				pending.put(sink, msgs);
+			}
+			
+			msgs.add(msg);
+		}
+		
+		public void flush(final MessageSink sink) {
+			final List<Object> msgs = pending.remove(sink);
+			
+			if (msgs != null) {
+				sink.pushAll(msgs);
+			}
+		}
+		
+		public void flushAll() {
+			RuntimeException error = null;
+			
+			while (!pending.isEmpty()) {
+				try {
+					flush(pending.keySet().iterator().next());
+				} catch (final RuntimeException e) {
+					if (error == null) {
+						error = e;
+					}
+				}
+			}
+			
+			if (error != null) {
+				throw error;
+			}
+		}
+	}
+	
+	private static class Attempt {
+		public boolean active = false;
+		public boolean rejected = false;
 	}
 }
@@ -0,0 +1,42 @@
+/*
+ * Woody - Basic Actor model implementation
+ * 
+ * Copyright (C) 2017 Joaquim Rocha <jrocha@gmailbox.org>
+ * 
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package net.uiqui.woody.api.cglib;
+
+import java.lang.reflect.InvocationTargetException;
+
+import net.sf.cglib.reflect.FastClass;
+import net.uiqui.woody.api.invoke.Invoker;
+
+public class FastClassInvoker implements Invoker {
+	private final FastClass fastClass;
+	private final int index;
+
+	public FastClassInvoker(final FastClass fastClass, final int index) {
+		this.fastClass = fastClass;
+		this.index = index;
+	}
+
+	@Override
+	public Object invoke(final Object target, final Object[] args) throws Throwable {
+		try {
+			return fastClass.invoke(index, target, args);
+		} catch (final InvocationTargetException e) {
+			throw e.getTargetException();
+		}
+	}
+}
@@ -17,12 +17,20 @@
  */
 package net.uiqui.woody.api.cglib;
 
+import java.lang.reflect.Method;
+
+import net.sf.cglib.proxy.InvocationHandler;
 import net.sf.cglib.proxy.LazyLoader;
 import net.uiqui.woody.Woody;
 import net.uiqui.woody.api.error.ActorNotFounfError;
+import net.uiqui.woody.api.proxy.GeneratedProxies;
 
-public class LazyActor implements LazyLoader {
+/*
+ * LazyLoader for the cglib proxies, InvocationHandler for the generated ones
+ */
+public class LazyActor implements LazyLoader, InvocationHandler {
 	private String name = null;
+	private volatile Object actor = null;
 	
 	public LazyActor(final String name) {
 		this.name = name;
@@ -38,4 +46,16 @@ public class LazyActor implements LazyLoader {
 		
 		return actor;
 	}
+
+	@Override
+	public Object invoke(final Object obj, final Method method, final Object[] args) throws Throwable {
+		Object actor = this.actor;
+		
+		if (actor == null) {
+			actor = loadObject();
+			this.actor = actor;
+		}
+		
+		return GeneratedProxies.handlerOf(actor).invoke(actor, method, args);
+	}
 }
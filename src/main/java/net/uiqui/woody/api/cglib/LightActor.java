@@ -0,0 +1,252 @@
+/*
+ * Woody - Basic Actor model implementation
+ * 
+ * Copyright (C) 2017 Joaquim Rocha <jrocha@gmailbox.org>
+ * 
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package net.uiqui.woody.api.cglib;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+import net.sf.cglib.proxy.InvocationHandler;
+import net.uiqui.woody.ActorOptions;
+import net.uiqui.woody.api.ActorWrapper;
+import net.uiqui.woody.api.error.NotAvailableException;
+import net.uiqui.woody.api.invoke.CallType;
+import net.uiqui.woody.api.invoke.DispatchTable;
+import net.uiqui.woody.api.metrics.ActorMetrics;
+import net.uiqui.woody.api.msg.CallMessage;
+import net.uiqui.woody.api.msg.CastMessage;
+import net.uiqui.woody.api.msg.Message;
+import net.uiqui.woody.api.msg.MessageSink;
+import net.uiqui.woody.api.msg.StageCallMessage;
+import net.uiqui.woody.api.trace.Trace;
+import net.uiqui.woody.api.trace.Tracing;
+import net.uiqui.woody.lib.Dispatcher;
+
+/*
+ * Actor for applications with millions of actors, the proxy handler, the mailbox and the wrapper
+ * are a single object. The mailbox is a stack of nodes taken as a whole by the consumer, with
+ * the running flag packed on its state, an idle actor doesn't have any node.
+ * The mailbox is unbounded, so tryCast never fails, and the messages aren't pooled
+ */
+public class LightActor extends ActorWrapper implements InvocationHandler, Runnable, MessageSink {
+	private static final AtomicReferenceFieldUpdater<LightActor, Node> STATE = AtomicReferenceFieldUpdater.newUpdater(LightActor.class, Node.class, "state");
+	private static final long CALL_TIMEOUT = TimeUnit.MILLISECONDS.toNanos(new ActorOptions().getCallTimeout());
+	// Scheduled actor without new messages, null means idle
+	private static final Node RUNNING = new Node(null);
+	
+	private Dispatcher dispatcher = null;
+	private volatile Node state = null;
+	// Messages taken from the stack and not yet processed, only used by the consumer
+	private Node pending = null;
+	
+	public LightActor(final String name, final Object actor, final Dispatcher dispatcher) {
+		super(name, actor);
+		this.dispatcher = dispatcher;
+	}
+
+	@Override
+	public Object invoke(final Object obj, final Method method, final Object[] args) throws Throwable {
+		final DispatchTable table = getTable();
+		final int index = table.indexOf(method);
+		
+		if (index < 0) {
+			throw new NotAvailableException("The method " + method.getName() + " isn't exposed");
+		}
+		
+		final CallType callType = table.getCallType(index);
+		final Trace trace = Tracing.sample(getName(), method, callType == CallType.CALL);
+		
+		switch (callType) {
+		case CAST:
+			final CastMessage castMessage = new CastMessage(index, args);
+			castMessage.setTrace(trace);
+			push(castMessage);
+			break;
+		case CALL:
+			final CallMessage callMessage = new CallMessage(index, args);
+			callMessage.setDeadline(deadline(index));
+			callMessage.setTrace(trace);
+			push(callMessage);
+			
+			try {
+				return ActorProxy.await(callMessage);
+			} finally {
+				if (trace != null) {
+					trace.resumed();
+				}
+			}
+		case FUTURE:
+			final CallMessage futureMessage = new CallMessage(index, args);
+			futureMessage.setDeadline(deadline(index));
+			futureMessage.setTrace(trace);
+			futureMessage.expireOnDeadline();
+			push(futureMessage);
+			return futureMessage;
+		case STAGE:
+			final StageCallMessage stageMessage = new StageCallMessage(index, args);
+			stageMessage.setDeadline(deadline(index));
+			stageMessage.setTrace(trace);
+			stageMessage.expireOnDeadline();
+			push(stageMessage);
+			return stageMessage.getReply();
+		}
+		
+		return null;
+	}
+	
+	private long deadline(final int index) {
+		final long methodTimeout = getDescriptor().getTimeout(index);
+		return ActorProxy.deadline(methodTimeout > 0 ? methodTimeout : CALL_TIMEOUT);
+	}
+	
+	private void push(final Message msg) {
+		if (ActorProxy.batched(this, msg)) {
+			return;
+		}
+		
+		received(msg);
+		final Node node = new Node(msg);
+		publish(node, node);
+	}
+	
+	// The casts of a batch are published with a single CAS, the last one on the top of the stack
+	public void pushAll(final List<Object> msgs) {
+		Node top = null;
+		Node bottom = null;
+		
+		for (final Object msg : msgs) {
+			received((Message) msg);
+			final Node node = new Node(msg);
+			node.next = top;
+			top = node;
+			
+			if (bottom == null) {
+				bottom = node;
+			}
+		}
+		
+		if (top != null) {
+			publish(top, bottom);
+		}
+	}
+	
+	private void received(final Message msg) {
+		if (msg.getTrace() != null) {
+			msg.getTrace().enqueued();
+		}
+		
+		final ActorMetrics metrics = getMetrics();
+		
+		if (metrics != null) {
+			msg.setEnqueued(System.nanoTime());
+			metrics.received();
+		}
+	}
+	
+	private void publish(final Node top, final Node bottom) {
+		while (true) {
+			final Node current = state;
+			bottom.next = current;
+			
+			if (STATE.compareAndSet(this, current, top)) {
+				// Only the sender that finds the actor idle schedules it
+				if (current == null) {
+					dispatcher.dispatch(this);
+				}
+				
+				return;
+			}
+		}
+	}
+
+	public void run() {
+		final int throughput = dispatcher.getThroughput();
+		final ActorMetrics metrics = getMetrics();
+		boolean idle = false;
+		
+		try {
+			for (int i = 0; i < throughput; i++) {
+				if (pending == null) {
+					pending = reverse(STATE.getAndSet(this, RUNNING));
+					
+					if (pending == null) {
+						// Nothing new, unless a message arrived meanwhile
+						idle = STATE.compareAndSet(this, RUNNING, null);
+						
+						if (idle) {
+							return;
+						}
+						
+						continue;
+					}
+				}
+				
+				final Message message = (Message) pending.msg;
+				pending = pending.next;
+				
+				final long start = metrics != null ? metrics.dequeued(message.getEnqueued()) : 0L;
+				
+				if (message.getTrace() != null) {
+					message.getTrace().dequeued();
+				}
+				
+				if (message instanceof CastMessage) {
+					handleCast((CastMessage) message);
+				} else if (message instanceof CallMessage) {
+					handleCall((CallMessage) message);
+				}
+				
+				if (metrics != null) {
+					metrics.processed(message.getMethod(), start);
+				}
+				
+				message.release();
+			}
+		} finally {
+			// Throughput reached, the actor goes back to the end of the queue
+			if (!idle) {
+				dispatcher.dispatch(this);
+			}
+		}
+	}
+	
+	// The stack is LIFO, returns the messages on the order they were sent
+	private static Node reverse(final Node top) {
+		Node reversed = null;
+		Node node = top;
+		
+		while (node != null && node != RUNNING) {
+			final Node next = node.next;
+			node.next = reversed;
+			reversed = node;
+			node = next;
+		}
+		
+		return reversed;
+	}
+	
+	private static class Node {
+		public final Object msg;
+		public Node next = null;
+		
+		public Node(final Object msg) {
+			this.msg = msg;
+		}
+	}
+}
@@ -0,0 +1,48 @@
+/*
+ * Woody - Basic Actor model implementation
+ * 
+ * Copyright (C) 2017 Joaquim Rocha <jrocha@gmailbox.org>
+ * 
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package net.uiqui.woody.api.cglib;
+
+import net.sf.cglib.proxy.Callback;
+import net.sf.cglib.proxy.Enhancer;
+import net.uiqui.woody.api.error.InvalidActorException;
+
+/*
+ * The proxy class is generated once per actor class and callback type, the instances 
+ * are created without going through the Enhancer key lookup
+ */
+public class ProxyFactory {
+	public static Class<?> newProxyClass(final Class<?> type, final Class<? extends Callback> callbackType) {
+		final Enhancer enhancer = new Enhancer();
+		enhancer.setSuperclass(type);
+		enhancer.setCallbackType(callbackType);
+		return enhancer.createClass();
+	}
+	
+	public static Object newProxy(final Class<?> proxyClass, final Callback callback) {
+		// The callbacks are taken from a thread local by the proxy constructor
+		Enhancer.registerCallbacks(proxyClass, new Callback[] { callback });
+		
+		try {
+			return proxyClass.newInstance();
+		} catch (final Exception e) {
+			throw new InvalidActorException("Error creating proxy of " + proxyClass.getSuperclass().getName(), e);
+		} finally {
+			Enhancer.registerCallbacks(proxyClass, null);
+		}
+	}
+}
@@ -0,0 +1,45 @@
+/*
+ * Woody - Basic Actor model implementation
+ * 
+ * Copyright (C) 2017 Joaquim Rocha <jrocha@gmailbox.org>
+ * 
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package net.uiqui.woody.api.cglib;
+
+import java.lang.reflect.Method;
+
+import net.sf.cglib.proxy.InvocationHandler;
+import net.uiqui.woody.api.VirtualActors;
+
+/*
+ * Reference to a virtual actor, activates the instance when needed
+ */
+public class VirtualActor implements InvocationHandler {
+	private String name = null;
+	private VirtualActors<?> kind = null;
+	
+	public VirtualActor(final String name, final VirtualActors<?> kind) {
+		this.name = name;
+		this.kind = kind;
+	}
+	
+	public String getName() {
+		return name;
+	}
+
+	@Override
+	public Object invoke(final Object obj, final Method method, final Object[] args) throws Throwable {
+		return kind.invoke(name, obj, method, args);
+	}
+}
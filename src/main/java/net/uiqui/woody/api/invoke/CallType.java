@@ -0,0 +1,68 @@
+/*
+ * Woody - Basic Actor model implementation
+ * 
+ * Copyright (C) 2017 Joaquim Rocha <jrocha@gmailbox.org>
+ * 
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package net.uiqui.woody.api.invoke;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+
+import net.uiqui.woody.annotations.Async;
+import net.uiqui.woody.api.error.InvalidActorException;
+
+public enum CallType {
+	// Fire and forget, the sender doesn't wait
+	CAST,
+	// The sender waits for the reply
+	CALL,
+	// The sender receives a Future
+	FUTURE,
+	// The sender receives a CompletableFuture
+	STAGE;
+	
+	public static CallType of(final Method method) {
+		final Async async = method.getAnnotation(Async.class);
+		final Class<?> returnType = method.getReturnType();
+		
+		if (async != null && async.oneway()) {
+			if (returnType.isPrimitive() && returnType != void.class) {
+				throw new InvalidActorException("The one-way method " + method + " can't return a primitive value");
+			}
+			
+			return CAST;
+		}
+		
+		if (returnType == void.class || returnType == Void.class) {
+			return CAST;
+		}
+		
+		if (returnType == Future.class) {
+			return FUTURE;
+		}
+		
+		if (isFuture(returnType)) {
+			return STAGE;
+		}
+		
+		return CALL;
+	}
+	
+	// Future, CompletionStage and CompletableFuture
+	public static boolean isFuture(final Class<?> type) {
+		return type != Object.class && type.isAssignableFrom(CompletableFuture.class);
+	}
+}
@@ -0,0 +1,164 @@
+/*
+ * Woody - Basic Actor model implementation
+ * 
+ * Copyright (C) 2017 Joaquim Rocha <jrocha@gmailbox.org>
+ * 
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package net.uiqui.woody.api.invoke;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import net.sf.cglib.reflect.FastClass;
+import net.uiqui.woody.annotations.Async;
+import net.uiqui.woody.annotations.Key;
+import net.uiqui.woody.api.cglib.FastClassInvoker;
+import net.uiqui.woody.api.proxy.GeneratedProxies;
+
+public class DispatchTable {
+	private static final ClassValue<DispatchTable> TABLES = new ClassValue<DispatchTable>() {
+		protected DispatchTable computeValue(final Class<?> clazz) {
+			return new DispatchTable(clazz);
+		}
+	};
+	
+	private static final Comparator<Method> METHOD_ORDER = new Comparator<Method>() {
+		public int compare(final Method m1, final Method m2) {
+			final int byName = m1.getName().compareTo(m2.getName());
+			
+			if (byName != 0) {
+				return byName;
+			}
+			
+			return m1.toString().compareTo(m2.toString());
+		}
+	};
+	
+	private final Class<?> type;
+	private final Method[] methods;
+	private final Invoker[] invokers;
+	private final CallType[] callTypes;
+	private final int[] keys;
+	private final MethodRegistry registry;
+	
+	private DispatchTable(final Class<?> clazz) {
+		this.type = clazz;
+		
+		final List<Method> asyncMethods = new ArrayList<Method>();
+		
+		for (final Method method : clazz.getMethods()) {
+			final Async async = method.getAnnotation(Async.class);
+			
+			if (async != null) {
+				asyncMethods.add(method);
+			}
+		}
+		
+		// Sorted, so the indexes don't depend on the order returned by getMethods()
+		Collections.sort(asyncMethods, METHOD_ORDER);
+		
+		this.methods = asyncMethods.toArray(new Method[asyncMethods.size()]);
+		this.invokers = new Invoker[methods.length];
+		this.callTypes = new CallType[methods.length];
+		this.keys = new int[methods.length];
+		
+		for (int i = 0; i < methods.length; i++) {
+			invokers[i] = GeneratedProxies.getInvoker(clazz, methods[i]);
+		}
+		
+		// Only generated when a method doesn't have a compile time invoker
+		final FastClass fastClass = Modifier.isPublic(clazz.getModifiers()) && contains(invokers, null) ? FastClass.create(clazz) : null;
+		
+		for (int i = 0; i < methods.length; i++) {
+			final Method method = methods[i];
+			
+			if (invokers[i] == null) {
+				final int fastIndex = fastClass != null ? fastClass.getIndex(method.getName(), method.getParameterTypes()) : -1;
+				invokers[i] = fastIndex >= 0 ? new FastClassInvoker(fastClass, fastIndex) : new ReflectiveInvoker(method);
+			}
+			
+			callTypes[i] = CallType.of(method);
+			keys[i] = keyOf(method);
+		}
+		
+		this.registry = new MethodRegistry(methods);
+	}
+	
+	private static boolean contains(final Object[] array, final Object value) {
+		for (final Object element : array) {
+			if (element == value) {
+				return true;
+			}
+		}
+		
+		return false;
+	}
+	
+	private static int keyOf(final Method method) {
+		final Annotation[][] annotations = method.getParameterAnnotations();
+		
+		for (int i = 0; i < annotations.length; i++) {
+			for (final Annotation annotation : annotations[i]) {
+				if (annotation instanceof Key) {
+					return i;
+				}
+			}
+		}
+		
+		return -1;
+	}
+	
+	public static DispatchTable get(final Class<?> clazz) {
+		return TABLES.get(clazz);
+	}
+	
+	public Class<?> getType() {
+		return type;
+	}
+	
+	public int indexOf(final Method method) {
+		return registry.idOf(method);
+	}
+	
+	public CallType getCallType(final int index) {
+		return callTypes[index];
+	}
+	
+	// The method returns a future, the reply is only available when the future completes
+	public boolean isDeferred(final int index) {
+		return callTypes[index] == CallType.FUTURE || callTypes[index] == CallType.STAGE;
+	}
+	
+	// Position of the parameter annotated with Key, -1 if none
+	public int getKeyIndex(final int index) {
+		return keys[index];
+	}
+	
+	public int size() {
+		return methods.length;
+	}
+	
+	public Method getMethod(final int index) {
+		return methods[index];
+	}
+	
+	public Invoker getInvoker(final int index) {
+		return invokers[index];
+	}
+}
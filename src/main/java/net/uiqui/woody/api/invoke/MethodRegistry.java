@@ -0,0 +1,78 @@
+/*
+ * Woody - Basic Actor model implementation
+ * 
+ * Copyright (C) 2017 Joaquim Rocha <jrocha@gmailbox.org>
+ * 
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package net.uiqui.woody.api.invoke;
+
+import java.lang.reflect.Method;
+
+/*
+ * Immutable open addressing table, resolving a Method to its id
+ * without allocating and using Method.equals to solve collisions
+ */
+public class MethodRegistry {
+	private final Method[] keys;
+	private final int[] ids;
+	private final int mask;
+
+	public MethodRegistry(final Method[] methods) {
+		int capacity = 2;
+
+		while (capacity < methods.length * 2) {
+			capacity <<= 1;
+		}
+
+		this.keys = new Method[capacity];
+		this.ids = new int[capacity];
+		this.mask = capacity - 1;
+
+		for (int id = 0; id < methods.length; id++) {
+			final Method method = methods[id];
+			int slot = slot(method);
+
+			// Class.getMethods() never returns two equal methods, bridge methods differ on the return type
+			while (keys[slot] != null) {
+				slot = (slot + 1) & mask;
+			}
+
+			keys[slot] = method;
+			ids[slot] = id;
+		}
+	}
+
+	public int idOf(final Method method) {
+		int slot = slot(method);
+
+		while (true) {
+			final Method key = keys[slot];
+
+			if (key == null) {
+				return -1;
+			}
+
+			if (key == method || key.equals(method)) {
+				return ids[slot];
+			}
+
+			slot = (slot + 1) & mask;
+		}
+	}
+
+	private int slot(final Method method) {
+		final int hashCode = method.hashCode();
+		return (hashCode ^ (hashCode >>> 16)) & mask;
+	}
+}
@@ -0,0 +1,95 @@
+/*
+ * Woody - Basic Actor model implementation
+ * 
+ * Copyright (C) 2017 Joaquim Rocha <jrocha@gmailbox.org>
+ * 
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package net.uiqui.woody.api.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+import net.uiqui.woody.api.invoke.DispatchTable;
+import net.uiqui.woody.api.queue.MessageQueue;
+
+/*
+ * Counters of one actor instance, updated by the senders (received, rejected)
+ * and by the thread processing the actor messages
+ */
+public class ActorMetrics {
+	private String name = null;
+	private DispatchTable table = null;
+	private MessageQueue queue = null;
+	
+	private final LongAdder received = new LongAdder();
+	private final LongAdder rejected = new LongAdder();
+	private final Histogram queueTime = new Histogram();
+	private final LongAdder[] errors;
+	private final Histogram[] processingTimes;
+	
+	public ActorMetrics(final String name, final DispatchTable table) {
+		this.name = name;
+		this.table = table;
+		this.errors = new LongAdder[table.size()];
+		this.processingTimes = new Histogram[table.size()];
+		
+		for (int i = 0; i < table.size(); i++) {
+			errors[i] = new LongAdder();
+			processingTimes[i] = new Histogram();
+		}
+	}
+	
+	public void setQueue(final MessageQueue queue) {
+		this.queue = queue;
+	}
+	
+	public void received() {
+		received.increment();
+	}
+	
+	public void received(final int count) {
+		received.add(count);
+	}
+	
+	public void rejected() {
+		rejected.increment();
+	}
+	
+	// Returns the time used as start of the processing
+	public long dequeued(final long enqueued) {
+		final long now = System.nanoTime();
+		queueTime.record(now - enqueued);
+		return now;
+	}
+	
+	public void processed(final int method, final long start) {
+		processingTimes[method].record(System.nanoTime() - start);
+	}
+	
+	public void failed(final int method) {
+		errors[method].increment();
+	}
+	
+	public ActorSnapshot snapshot() {
+		final List<MethodSnapshot> methods = new ArrayList<MethodSnapshot>();
+		
+		for (int i = 0; i < processingTimes.length; i++) {
+			methods.add(new MethodSnapshot(table.getMethod(i).getName(), errors[i].sum(), processingTimes[i].snapshot()));
+		}
+		
+		final int mailboxSize = queue != null ? queue.size() : 0;
+		return new ActorSnapshot(name, table.getType().getName(), mailboxSize, received.sum(), rejected.sum(), queueTime.snapshot(), methods);
+	}
+}
@@ -0,0 +1,87 @@
+/*
+ * Woody - Basic Actor model implementation
+ * 
+ * Copyright (C) 2017 Joaquim Rocha <jrocha@gmailbox.org>
+ * 
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package net.uiqui.woody.api.metrics;
+
+import java.util.List;
+
+public class ActorSnapshot {
+	private String name = null;
+	private String type = null;
+	private int mailboxSize = 0;
+	private long received = 0;
+	private long rejected = 0;
+	private LatencySnapshot queueTime = null;
+	private List<MethodSnapshot> methods = null;
+	
+	public ActorSnapshot(final String name, final String type, final int mailboxSize, final long received, final long rejected, final LatencySnapshot queueTime, final List<MethodSnapshot> methods) {
+		this.name = name;
+		this.type = type;
+		this.mailboxSize = mailboxSize;
+		this.received = received;
+		this.rejected = rejected;
+		this.queueTime = queueTime;
+		this.methods = methods;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public String getType() {
+		return type;
+	}
+
+	public int getMailboxSize() {
+		return mailboxSize;
+	}
+
+	public long getReceived() {
+		return received;
+	}
+
+	public long getProcessed() {
+		return queueTime.getCount();
+	}
+
+	public long getRejected() {
+		return rejected;
+	}
+
+	public long getErrors() {
+		long errors = 0;
+		
+		for (final MethodSnapshot method : methods) {
+			errors += method.getErrors();
+		}
+		
+		return errors;
+	}
+
+	public LatencySnapshot getQueueTime() {
+		return queueTime;
+	}
+
+	public List<MethodSnapshot> getMethods() {
+		return methods;
+	}
+
+	@Override
+	public String toString() {
+		return name + " (" + type + ") {mailboxSize=" + mailboxSize + ", received=" + received + ", rejected=" + rejected + ", queueTime=[" + queueTime + "], methods=" + methods + "}";
+	}
+}
@@ -0,0 +1,78 @@
+/*
+ * Woody - Basic Actor model implementation
+ * 
+ * Copyright (C) 2017 Joaquim Rocha <jrocha@gmailbox.org>
+ * 
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package net.uiqui.woody.api.metrics;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadPoolExecutor;
+
+// Values not reported by the executor are -1
+public class ExecutorSnapshot {
+	private String type = null;
+	private int poolSize = -1;
+	private int activeThreads = -1;
+	private long queuedTasks = -1;
+	private long completedTasks = -1;
+	
+	public ExecutorSnapshot(final String type, final int poolSize, final int activeThreads, final long queuedTasks, final long completedTasks) {
+		this.type = type;
+		this.poolSize = poolSize;
+		this.activeThreads = activeThreads;
+		this.queuedTasks = queuedTasks;
+		this.completedTasks = completedTasks;
+	}
+	
+	public static ExecutorSnapshot of(final String type, final Executor executor) {
+		if (executor instanceof ThreadPoolExecutor) {
+			final ThreadPoolExecutor pool = (ThreadPoolExecutor) executor;
+			return new ExecutorSnapshot(type, pool.getPoolSize(), pool.getActiveCount(), pool.getQueue().size(), pool.getCompletedTaskCount());
+		}
+		
+		if (executor instanceof ForkJoinPool) {
+			final ForkJoinPool pool = (ForkJoinPool) executor;
+			return new ExecutorSnapshot(type, pool.getPoolSize(), pool.getActiveThreadCount(), pool.getQueuedSubmissionCount() + pool.getQueuedTaskCount(), -1);
+		}
+		
+		return new ExecutorSnapshot(type, -1, -1, -1, -1);
+	}
+
+	public String getType() {
+		return type;
+	}
+
+	public int getPoolSize() {
+		return poolSize;
+	}
+
+	public int getActiveThreads() {
+		return activeThreads;
+	}
+
+	public long getQueuedTasks() {
+		return queuedTasks;
+	}
+
+	public long getCompletedTasks() {
+		return completedTasks;
+	}
+
+	@Override
+	public String toString() {
+		return type + " {poolSize=" + poolSize + ", activeThreads=" + activeThreads + ", queuedTasks=" + queuedTasks + ", completedTasks=" + completedTasks + "}";
+	}
+}
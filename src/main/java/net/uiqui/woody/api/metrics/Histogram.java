@@ -0,0 +1,103 @@
+/*
+ * Woody - Basic Actor model implementation
+ * 
+ * Copyright (C) 2017 Joaquim Rocha <jrocha@gmailbox.org>
+ * 
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package net.uiqui.woody.api.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/*
+ * Log-linear histogram (HDR style), each power of two is split in 8 buckets so the
+ * error is below 12.5%. Values are nanoseconds, anything above 2^41 (~36 minutes) is clamped.
+ * Single writer, the actor messages are never processed by two threads at the same time,
+ * so the counters are updated with ordered writes instead of atomic increments
+ */
+public class Histogram {
+	private static final int SUB_BUCKET_BITS = 3;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+	private static final int MAX_EXPONENT = 41;
+	private static final long MAX_VALUE = (1L << MAX_EXPONENT) - 1;
+	private static final int BUCKETS = (MAX_EXPONENT - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+	
+	private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+	private final AtomicLong total = new AtomicLong(0);
+	
+	public void record(final long value) {
+		final long clamped = value < 0 ? 0 : Math.min(value, MAX_VALUE);
+		final int index = indexOf(clamped);
+		buckets.lazySet(index, buckets.get(index) + 1);
+		total.lazySet(total.get() + clamped);
+	}
+	
+	public LatencySnapshot snapshot() {
+		final long[] counts = new long[BUCKETS];
+		long samples = 0;
+		long max = 0;
+		
+		for (int i = 0; i < BUCKETS; i++) {
+			counts[i] = buckets.get(i);
+			samples += counts[i];
+			
+			if (counts[i] > 0) {
+				max = highestValueOf(i);
+			}
+		}
+		
+		final long mean = samples > 0 ? total.get() / samples : 0;
+		return new LatencySnapshot(samples, mean, percentile(counts, samples, 0.5), percentile(counts, samples, 0.9), percentile(counts, samples, 0.99), max);
+	}
+	
+	private static long percentile(final long[] counts, final long samples, final double percentile) {
+		if (samples == 0) {
+			return 0;
+		}
+		
+		final long rank = (long) Math.ceil(samples * percentile);
+		long seen = 0;
+		
+		for (int i = 0; i < counts.length; i++) {
+			seen += counts[i];
+			
+			if (seen >= rank) {
+				return highestValueOf(i);
+			}
+		}
+		
+		return highestValueOf(counts.length - 1);
+	}
+	
+	private static int indexOf(final long value) {
+		if (value < SUB_BUCKETS) {
+			return (int) value;
+		}
+		
+		final int exponent = 63 - Long.numberOfLeadingZeros(value);
+		final int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+		return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+	}
+	
+	private static long highestValueOf(final int index) {
+		if (index < SUB_BUCKETS) {
+			return index;
+		}
+		
+		final int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+		final long subBucket = index % SUB_BUCKETS;
+		final long width = 1L << (exponent - SUB_BUCKET_BITS);
+		return ((SUB_BUCKETS + subBucket) << (exponent - SUB_BUCKET_BITS)) + width - 1;
+	}
+}
@@ -0,0 +1,51 @@
+/*
+ * Woody - Basic Actor model implementation
+ * 
+ * Copyright (C) 2017 Joaquim Rocha <jrocha@gmailbox.org>
+ * 
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package net.uiqui.woody.api.metrics;
+
+public class MethodSnapshot {
+	private String method = null;
+	private long errors = 0;
+	private LatencySnapshot processingTime = null;
+	
+	public MethodSnapshot(final String method, final long errors, final LatencySnapshot processingTime) {
+		this.method = method;
+		this.errors = errors;
+		this.processingTime = processingTime;
+	}
+
+	public String getMethod() {
+		return method;
+	}
+
+	public long getCount() {
+		return processingTime.getCount();
+	}
+
+	public long getErrors() {
+		return errors;
+	}
+
+	public LatencySnapshot getProcessingTime() {
+		return processingTime;
+	}
+
+	@Override
+	public String toString() {
+		return method + " {errors=" + errors + ", processingTime=[" + processingTime + "]}";
+	}
+}
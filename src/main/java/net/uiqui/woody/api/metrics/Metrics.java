@@ -0,0 +1,139 @@
+/*
+ * Woody - Basic Actor model implementation
+ * 
+ * Copyright (C) 2017 Joaquim Rocha <jrocha@gmailbox.org>
+ * 
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package net.uiqui.woody.api.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+import javax.management.ObjectName;
+
+import net.uiqui.woody.api.invoke.DispatchTable;
+import net.uiqui.woody.lib.Runner;
+
+/*
+ * Registry of the actor metrics, actors are only referenced weakly. When disabled
+ * no metrics are created and the mailboxes don't record anything
+ */
+public class Metrics {
+	public static final String OBJECT_NAME = "net.uiqui.woody:type=Metrics";
+	
+	private static final boolean ENABLED = isEnabled();
+	private static final Set<ActorMetrics> ACTORS = Collections.newSetFromMap(new WeakHashMap<ActorMetrics, Boolean>());
+	
+	static {
+		if (ENABLED) {
+			registerMBean();
+		}
+	}
+	
+	public static boolean enabled() {
+		return ENABLED;
+	}
+	
+	public static ActorMetrics newActorMetrics(final String name, final DispatchTable table) {
+		if (!ENABLED) {
+			return null;
+		}
+		
+		final ActorMetrics metrics = new ActorMetrics(name, table);
+		
+		synchronized (ACTORS) {
+			ACTORS.add(metrics);
+		}
+		
+		return metrics;
+	}
+	
+	public static MetricsSnapshot snapshot() {
+		return new MetricsSnapshot(Runner.snapshot(), actors());
+	}
+	
+	public static List<ActorSnapshot> actors() {
+		final List<ActorMetrics> metrics;
+		
+		synchronized (ACTORS) {
+			metrics = new ArrayList<ActorMetrics>(ACTORS);
+		}
+		
+		final List<ActorSnapshot> actors = new ArrayList<ActorSnapshot>(metrics.size());
+		
+		for (final ActorMetrics actor : metrics) {
+			actors.add(actor.snapshot());
+		}
+		
+		return actors;
+	}
+	
+	private static int actorCount() {
+		synchronized (ACTORS) {
+			return ACTORS.size();
+		}
+	}
+	
+	private static void registerMBean() {
+		try {
+			ManagementFactory.getPlatformMBeanServer().registerMBean(new MetricsBean(), new ObjectName(OBJECT_NAME));
+		} catch (final Exception e) {
+			// Metrics are still available through Woody.getMetrics()
+		}
+	}
+	
+	private static boolean isEnabled() {
+		final String propValue = System.getProperty("woody.metrics.enabled");
+
+		if (propValue != null) {
+			return Boolean.valueOf(propValue);
+		}
+
+		return false;
+	}
+	
+	private static class MetricsBean implements MetricsMXBean {
+		public String getExecutorType() {
+			return Runner.snapshot().getType();
+		}
+
+		public int getPoolSize() {
+			return Runner.snapshot().getPoolSize();
+		}
+
+		public int getActiveThreads() {
+			return Runner.snapshot().getActiveThreads();
+		}
+
+		public long getQueuedTasks() {
+			return Runner.snapshot().getQueuedTasks();
+		}
+
+		public long getCompletedTasks() {
+			return Runner.snapshot().getCompletedTasks();
+		}
+
+		public int getActorCount() {
+			return actorCount();
+		}
+
+		public List<ActorSnapshot> getActors() {
+			return actors();
+		}
+	}
+}
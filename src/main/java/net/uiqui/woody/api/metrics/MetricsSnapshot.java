@@ -0,0 +1,48 @@
+/*
+ * Woody - Basic Actor model implementation
+ * 
+ * Copyright (C) 2017 Joaquim Rocha <jrocha@gmailbox.org>
+ * 
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package net.uiqui.woody.api.metrics;
+
+import java.util.List;
+
+public class MetricsSnapshot {
+	private ExecutorSnapshot executor = null;
+	private List<ActorSnapshot> actors = null;
+	
+	public MetricsSnapshot(final ExecutorSnapshot executor, final List<ActorSnapshot> actors) {
+		this.executor = executor;
+		this.actors = actors;
+	}
+
+	public ExecutorSnapshot getExecutor() {
+		return executor;
+	}
+
+	public List<ActorSnapshot> getActors() {
+		return actors;
+	}
+	
+	public ActorSnapshot getActor(final String name) {
+		for (final ActorSnapshot actor : actors) {
+			if (name.equals(actor.getName())) {
+				return actor;
+			}
+		}
+		
+		return null;
+	}
+}
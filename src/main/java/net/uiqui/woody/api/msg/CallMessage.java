@@ -17,22 +17,117 @@
  */
 package net.uiqui.woody.api.msg;
 
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+import net.uiqui.woody.api.error.CallTimeoutException;
+import net.uiqui.woody.api.trace.Trace;
+import net.uiqui.woody.api.util.Deadline;
 import net.uiqui.woody.api.util.FutureResult;
+import net.uiqui.woody.lib.Scheduler;
+import net.uiqui.woody.lib.Timer;
 
-public class CallMessage extends FutureResult<Object> {
-	private Integer method = null;
+public class CallMessage extends FutureResult<Object> implements Message {
+	private static final AtomicIntegerFieldUpdater<CallMessage> OWNERS = AtomicIntegerFieldUpdater.newUpdater(CallMessage.class, "owners");
+	
+	private int method = 0;
 	private Object[] args = null;
+	private long enqueued = 0;
+	private Trace trace = null;
+	private long deadline = Deadline.NONE;
+	private volatile Timer timer = null;
+	private MessagePool pool = null;
+	private volatile int owners = 0;
+	
+	public CallMessage(final int method, final Object[] args) {
+		this.method = method;
+		this.args = args;
+	}
 	
-	public CallMessage(final Integer method, final Object[] args) {
+	// Pooled calls are owned by the caller and by the mailbox, the last one to release the message recycles it
+	void init(final int method, final Object[] args, final MessagePool pool) {
 		this.method = method;
 		this.args = args;
+		this.pool = pool;
+		this.owners = 2;
+	}
+	
+	public void release() {
+		if (pool != null && OWNERS.decrementAndGet(this) == 0) {
+			final MessagePool owner = pool;
+			reset();
+			owner.recycle(this);
+		}
+	}
+	
+	@Override
+	protected void reset() {
+		super.reset();
+		method = 0;
+		args = null;
+		pool = null;
+		deadline = Deadline.NONE;
+		timer = null;
+		trace = null;
 	}
 
-	public Integer getMethod() {
+	public int getMethod() {
 		return method;
 	}
 
 	public Object[] getArgs() {
 		return args;
 	}
+
+	public long getEnqueued() {
+		return enqueued;
+	}
+
+	public void setEnqueued(final long enqueued) {
+		this.enqueued = enqueued;
+	}
+
+	public Trace getTrace() {
+		return trace;
+	}
+
+	public void setTrace(final Trace trace) {
+		this.trace = trace;
+	}
+
+	public long getDeadline() {
+		return deadline;
+	}
+
+	public void setDeadline(final long deadline) {
+		this.deadline = deadline;
+	}
+	
+	public boolean isExpired() {
+		return Deadline.isExpired(deadline);
+	}
+	
+	public void expire() {
+		setException(new CallTimeoutException("The call wasn't answered before the deadline"));
+	}
+	
+	// Used by the callers that don't wait for the reply
+	public void expireOnDeadline() {
+		if (deadline != Deadline.NONE) {
+			final long delay = TimeUnit.NANOSECONDS.toMillis(Deadline.remaining(deadline)) + 1;
+			
+			timer = Scheduler.timerAfter(delay, new Runnable() {
+				public void run() {
+					expire();
+				}
+			});
+		}
+	}
+	
+	@Override
+	protected void done() {
+		if (timer != null) {
+			timer.cancel();
+		}
+	}
 }
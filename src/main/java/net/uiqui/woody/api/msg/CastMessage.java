@@ -17,20 +17,57 @@
  */
 package net.uiqui.woody.api.msg;
 
-public class CastMessage {
-	private Integer method = null;
+import net.uiqui.woody.api.trace.Trace;
+
+public class CastMessage implements Message {
+	private int method = 0;
 	private Object[] args = null;
+	private long enqueued = 0;
+	private Trace trace = null;
+	private MessagePool pool = null;
+	
+	public CastMessage(final int method, final Object[] args) {
+		this.method = method;
+		this.args = args;
+	}
 	
-	public CastMessage(final Integer method, final Object[] args) {
+	void init(final int method, final Object[] args, final MessagePool pool) {
 		this.method = method;
 		this.args = args;
+		this.pool = pool;
+		this.trace = null;
+	}
+	
+	// Invoked by the mailbox once the message was processed or dropped
+	public void release() {
+		if (pool != null) {
+			final MessagePool owner = pool;
+			init(0, null, null);
+			owner.recycle(this);
+		}
 	}
 
-	public Integer getMethod() {
+	public int getMethod() {
 		return method;
 	}
 
 	public Object[] getArgs() {
 		return args;
 	}
+
+	public long getEnqueued() {
+		return enqueued;
+	}
+
+	public void setEnqueued(final long enqueued) {
+		this.enqueued = enqueued;
+	}
+
+	public Trace getTrace() {
+		return trace;
+	}
+
+	public void setTrace(final Trace trace) {
+		this.trace = trace;
+	}
 }
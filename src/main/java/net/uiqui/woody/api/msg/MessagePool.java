@@ -0,0 +1,92 @@
+/*
+ * Woody - Basic Actor model implementation
+ * 
+ * Copyright (C) 2017 Joaquim Rocha <jrocha@gmailbox.org>
+ * 
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package net.uiqui.woody.api.msg;
+
+import net.uiqui.woody.api.queue.MessageQueue;
+import net.uiqui.woody.api.queue.MpmcArrayQueue;
+
+/*
+ * Free lists of message envelopes, shared by the senders and the mailbox consumer.
+ * Only casts and blocking calls are pooled, futures returned to the caller may be
+ * referenced for ever. Messages that aren't released are left to the GC
+ */
+public class MessagePool {
+	private static final int DEFAULT_SIZE = Integer.getInteger("woody.message.pool.size", 0);
+	// Stateless, shared by all the mailboxes when pooling is disabled
+	private static final MessagePool DISABLED = new MessagePool(0);
+	
+	private MessageQueue casts = null;
+	private MessageQueue calls = null;
+	
+	public MessagePool(final int size) {
+		if (size > 0) {
+			this.casts = new MpmcArrayQueue(size);
+			this.calls = new MpmcArrayQueue(size);
+		}
+	}
+	
+	public static MessagePool newPool() {
+		if (DEFAULT_SIZE <= 0) {
+			return DISABLED;
+		}
+		
+		return new MessagePool(DEFAULT_SIZE);
+	}
+	
+	public boolean isEnabled() {
+		return casts != null;
+	}
+	
+	public CastMessage newCast(final int method, final Object[] args) {
+		if (casts == null) {
+			return new CastMessage(method, args);
+		}
+		
+		CastMessage msg = (CastMessage) casts.poll();
+		
+		if (msg == null) {
+			msg = new CastMessage(method, args);
+		}
+		
+		msg.init(method, args, this);
+		return msg;
+	}
+	
+	public CallMessage newCall(final int method, final Object[] args) {
+		if (calls == null) {
+			return new CallMessage(method, args);
+		}
+		
+		CallMessage msg = (CallMessage) calls.poll();
+		
+		if (msg == null) {
+			msg = new CallMessage(method, args);
+		}
+		
+		msg.init(method, args, this);
+		return msg;
+	}
+	
+	void recycle(final CastMessage msg) {
+		casts.offer(msg);
+	}
+	
+	void recycle(final CallMessage msg) {
+		calls.offer(msg);
+	}
+}
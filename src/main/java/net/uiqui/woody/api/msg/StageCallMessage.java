@@ -0,0 +1,55 @@
+/*
+ * Woody - Basic Actor model implementation
+ * 
+ * Copyright (C) 2017 Joaquim Rocha <jrocha@gmailbox.org>
+ * 
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package net.uiqui.woody.api.msg;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+
+/*
+ * Call whose reply is delivered through a CompletableFuture, canceling the
+ * CompletableFuture cancels the request if it wasn't processed yet
+ */
+public class StageCallMessage extends CallMessage {
+	private final CompletableFuture<Object> reply = new CompletableFuture<Object>() {
+		public boolean cancel(final boolean mayInterruptIfRunning) {
+			StageCallMessage.this.cancel(mayInterruptIfRunning);
+			return isCancelled();
+		}
+	};
+	
+	public StageCallMessage(final int method, final Object[] args) {
+		super(method, args);
+	}
+	
+	public CompletableFuture<Object> getReply() {
+		return reply;
+	}
+
+	@Override
+	protected void done() {
+		super.done();
+		
+		if (isCancelled()) {
+			reply.completeExceptionally(new CancellationException());
+		} else if (getCause() != null) {
+			reply.completeExceptionally(getCause());
+		} else {
+			reply.complete(getResult());
+		}
+	}
+}
@@ -0,0 +1,113 @@
+/*
+ * Woody - Basic Actor model implementation
+ * 
+ * Copyright (C) 2017 Joaquim Rocha <jrocha@gmailbox.org>
+ * 
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package net.uiqui.woody.api.proxy;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+
+import net.sf.cglib.proxy.Callback;
+import net.sf.cglib.proxy.Factory;
+import net.sf.cglib.proxy.InvocationHandler;
+import net.uiqui.woody.api.error.InvalidActorException;
+import net.uiqui.woody.api.invoke.Invoker;
+
+/*
+ * Support for the proxies generated by the woody-processor, classes without
+ * a generated proxy keep using the cglib proxies
+ */
+public class GeneratedProxies {
+	public static final String SUFFIX = "$$WoodyProxy";
+	
+	private static final ClassValue<Constructor<?>> CONSTRUCTORS = new ClassValue<Constructor<?>>() {
+		protected Constructor<?> computeValue(final Class<?> type) {
+			return findConstructor(type);
+		}
+	};
+	
+	public static boolean isAvailable(final Class<?> type) {
+		return CONSTRUCTORS.get(type) != null;
+	}
+	
+	public static Object newProxy(final Class<?> type, final InvocationHandler handler) {
+		final Constructor<?> constructor = CONSTRUCTORS.get(type);
+		
+		try {
+			return constructor.newInstance(handler);
+		} catch (final Exception e) {
+			throw new InvalidActorException("Error creating proxy of " + type.getName(), e);
+		}
+	}
+	
+	// The typed invoker generated for the method, null if there isn't one
+	public static Invoker getInvoker(final Class<?> type, final Method method) {
+		final Constructor<?> constructor = CONSTRUCTORS.get(type);
+		
+		if (constructor == null) {
+			return null;
+		}
+		
+		try {
+			return (Invoker) constructor.getDeclaringClass().getMethod("woody$invoker", Method.class).invoke(null, method);
+		} catch (final Exception e) {
+			throw new InvalidActorException("Error reading the invokers of " + type.getName(), e);
+		}
+	}
+	
+	// Handler of a generated or cglib proxy, null if the object isn't a proxy
+	public static InvocationHandler handlerOf(final Object proxy) {
+		if (proxy instanceof WoodyProxy) {
+			return ((WoodyProxy) proxy).woody$handler();
+		}
+		
+		if (proxy instanceof Factory) {
+			final Callback callback = ((Factory) proxy).getCallback(0);
+			
+			if (callback instanceof InvocationHandler) {
+				return (InvocationHandler) callback;
+			}
+		}
+		
+		return null;
+	}
+	
+	// Used by the generated proxies to resolve their methods
+	public static Method method(final Class<?> type, final String name, final Class<?>... parameterTypes) {
+		try {
+			return type.getMethod(name, parameterTypes);
+		} catch (final NoSuchMethodException e) {
+			throw new IllegalStateException("The proxy of " + type.getName() + " is out of date, " + name + " not found", e);
+		}
+	}
+	
+	private static Constructor<?> findConstructor(final Class<?> type) {
+		try {
+			final Class<?> proxyClass = Class.forName(type.getName() + SUFFIX, true, type.getClassLoader());
+			
+			// A class with the same name that isn't a proxy of the type is ignored
+			if (proxyClass.getSuperclass() != type || !WoodyProxy.class.isAssignableFrom(proxyClass)) {
+				return null;
+			}
+			
+			return proxyClass.getConstructor(InvocationHandler.class);
+		} catch (final ClassNotFoundException e) {
+			return null;
+		} catch (final NoSuchMethodException e) {
+			return null;
+		}
+	}
+}
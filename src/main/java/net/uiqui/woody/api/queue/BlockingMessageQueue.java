@@ -0,0 +1,69 @@
+/*
+ * Woody - Basic Actor model implementation
+ * 
+ * Copyright (C) 2017 Joaquim Rocha <jrocha@gmailbox.org>
+ * 
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package net.uiqui.woody.api.queue;
+
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+public class BlockingMessageQueue implements MessageQueue {
+	private BlockingQueue<Object> queue = null;
+	
+	public BlockingMessageQueue() {
+		this.queue = new LinkedBlockingQueue<Object>();
+	}
+	
+	public BlockingMessageQueue(final int capacity) {
+		this.queue = new LinkedBlockingQueue<Object>(capacity);
+	}
+
+	@Override
+	public boolean offer(final Object msg) {
+		return queue.offer(msg);
+	}
+
+	@Override
+	public int offerAll(final List<Object> msgs) {
+		int count = 0;
+		
+		for (final Object msg : msgs) {
+			if (!offer(msg)) {
+				break;
+			}
+			
+			count++;
+		}
+		
+		return count;
+	}
+
+	@Override
+	public Object poll() {
+		return queue.poll();
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return queue.isEmpty();
+	}
+
+	@Override
+	public int size() {
+		return queue.size();
+	}
+}
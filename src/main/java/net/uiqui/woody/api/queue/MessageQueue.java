@@ -0,0 +1,37 @@
+/*
+ * Woody - Basic Actor model implementation
+ * 
+ * Copyright (C) 2017 Joaquim Rocha <jrocha@gmailbox.org>
+ * 
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package net.uiqui.woody.api.queue;
+
+import java.util.List;
+
+/*
+ * A mailbox queue accepts messages from many threads, but poll and isEmpty
+ * are only called by the thread processing the actor messages
+ */
+public interface MessageQueue {
+	public boolean offer(final Object msg);
+	
+	// Returns the number of messages accepted, always a prefix of the list
+	public int offerAll(final List<Object> msgs);
+
+	public Object poll();
+
+	public boolean isEmpty();
+
+	public int size();
+}
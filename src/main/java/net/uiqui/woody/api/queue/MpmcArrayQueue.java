@@ -0,0 +1,121 @@
+/*
+ * Woody - Basic Actor model implementation
+ * 
+ * Copyright (C) 2017 Joaquim Rocha <jrocha@gmailbox.org>
+ * 
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package net.uiqui.woody.api.queue;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/*
+ * Bounded array queue (Dmitry Vyukov's bounded MPMC queue), each slot has a sequence
+ * telling if it is free for the producer or ready for the consumer of the current lap.
+ * Any thread can poll, which allows producers to drop the oldest message
+ */
+public class MpmcArrayQueue implements MessageQueue {
+	private final AtomicLong producerIndex = new AtomicLong(0);
+	private final AtomicLong consumerIndex = new AtomicLong(0);
+	private final AtomicLongArray sequences;
+	private final AtomicReferenceArray<Object> buffer;
+	private final int capacity;
+
+	public MpmcArrayQueue(final int capacity) {
+		if (capacity < 1) {
+			throw new IllegalArgumentException("Capacity must be positive");
+		}
+		
+		this.capacity = capacity;
+		this.sequences = new AtomicLongArray(capacity);
+		this.buffer = new AtomicReferenceArray<Object>(capacity);
+		
+		for (int i = 0; i < capacity; i++) {
+			sequences.set(i, i);
+		}
+	}
+
+	@Override
+	public boolean offer(final Object msg) {
+		while (true) {
+			final long index = producerIndex.get();
+			final int slot = slot(index);
+			final long sequence = sequences.get(slot);
+			
+			if (sequence == index) {
+				if (producerIndex.compareAndSet(index, index + 1)) {
+					buffer.lazySet(slot, msg);
+					sequences.set(slot, index + 1);
+					return true;
+				}
+			} else if (sequence < index) {
+				// The slot wasn't released by the consumer of the previous lap
+				return false;
+			}
+		}
+	}
+
+	@Override
+	public int offerAll(final List<Object> msgs) {
+		int count = 0;
+		
+		for (final Object msg : msgs) {
+			if (!offer(msg)) {
+				break;
+			}
+			
+			count++;
+		}
+		
+		return count;
+	}
+
+	@Override
+	public Object poll() {
+		while (true) {
+			final long index = consumerIndex.get();
+			final int slot = slot(index);
+			final long sequence = sequences.get(slot);
+			
+			if (sequence == index + 1) {
+				if (consumerIndex.compareAndSet(index, index + 1)) {
+					final Object msg = buffer.get(slot);
+					buffer.lazySet(slot, null);
+					sequences.set(slot, index + capacity);
+					return msg;
+				}
+			} else if (sequence < index + 1) {
+				return null;
+			}
+		}
+	}
+
+	@Override
+	public boolean isEmpty() {
+		final long index = consumerIndex.get();
+		return sequences.get(slot(index)) != index + 1;
+	}
+
+	@Override
+	public int size() {
+		final long size = producerIndex.get() - consumerIndex.get();
+		return size > 0 ? (int) Math.min(size, capacity) : 0;
+	}
+	
+	private int slot(final long index) {
+		return (int) (index % capacity);
+	}
+}
@@ -0,0 +1,113 @@
+/*
+ * Woody - Basic Actor model implementation
+ * 
+ * Copyright (C) 2017 Joaquim Rocha <jrocha@gmailbox.org>
+ * 
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package net.uiqui.woody.api.queue;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * Multi-producer single-consumer linked queue (Dmitry Vyukov's non-intrusive MPSC node queue),
+ * producers only swap the head reference, the consumer owns the tail
+ */
+public class MpscLinkedQueue implements MessageQueue {
+	private static final AtomicReferenceFieldUpdater<MpscLinkedQueue, Node> HEAD = AtomicReferenceFieldUpdater.newUpdater(MpscLinkedQueue.class, Node.class, "head");
+	private static final AtomicLongFieldUpdater<MpscLinkedQueue> CONSUMED = AtomicLongFieldUpdater.newUpdater(MpscLinkedQueue.class, "consumed");
+
+	private volatile Node head = null;
+	private Node tail = null;
+
+	private final LongAdder produced = new LongAdder();
+	private volatile long consumed = 0;
+
+	public MpscLinkedQueue() {
+		final Node stub = new Node(null);
+		this.head = stub;
+		this.tail = stub;
+	}
+
+	@Override
+	public boolean offer(final Object msg) {
+		final Node node = new Node(msg);
+		produced.increment();
+
+		final Node previous = HEAD.getAndSet(this, node);
+		// Volatile write, the consumer must see it before any later state change made by the producer
+		previous.next = node;
+		return true;
+	}
+
+	@Override
+	public int offerAll(final List<Object> msgs) {
+		if (msgs.isEmpty()) {
+			return 0;
+		}
+		
+		// Links the batch privately, then publishes it with a single swap
+		final Node first = new Node(msgs.get(0));
+		Node last = first;
+		
+		for (int i = 1; i < msgs.size(); i++) {
+			final Node node = new Node(msgs.get(i));
+			last.next = node;
+			last = node;
+		}
+		
+		produced.add(msgs.size());
+
+		final Node previous = HEAD.getAndSet(this, last);
+		previous.next = first;
+		return msgs.size();
+	}
+
+	@Override
+	public Object poll() {
+		final Node next = tail.next;
+
+		if (next == null) {
+			return null;
+		}
+
+		final Object msg = next.value;
+		next.value = null;
+		tail = next;
+		CONSUMED.lazySet(this, consumed + 1);
+		return msg;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return tail.next == null;
+	}
+
+	@Override
+	public int size() {
+		final long size = produced.sum() - consumed;
+		return size > 0 ? (int) Math.min(size, Integer.MAX_VALUE) : 0;
+	}
+
+	private static class Node {
+		public Object value;
+		public volatile Node next;
+
+		public Node(final Object value) {
+			this.value = value;
+		}
+	}
+}
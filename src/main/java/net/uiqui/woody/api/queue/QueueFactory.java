@@ -0,0 +1,86 @@
+/*
+ * Woody - Basic Actor model implementation
+ * 
+ * Copyright (C) 2017 Joaquim Rocha <jrocha@gmailbox.org>
+ * 
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package net.uiqui.woody.api.queue;
+
+import net.uiqui.woody.api.error.WoodyException;
+
+public class QueueFactory {
+	public static final String MPSC = "mpsc";
+	public static final String BLOCKING = "blocking";
+
+	private static final String QUEUE_TYPE = queueType();
+
+	public static MessageQueue newQueue() {
+		return newQueue(QUEUE_TYPE);
+	}
+
+	public static MessageQueue newQueue(final int capacity) {
+		return newQueue(QUEUE_TYPE, capacity);
+	}
+
+	/*
+	 * Bounded mailboxes use a MpmcArrayQueue, unless the blocking queue was selected,
+	 * both allow the producers to drop the oldest message when the mailbox is full.
+	 * Custom queues must have a constructor receiving the capacity
+	 */
+	public static MessageQueue newQueue(final String type, final int capacity) {
+		if (capacity <= 0) {
+			return newQueue(type);
+		}
+		
+		if (MPSC.equals(type)) {
+			return new MpmcArrayQueue(capacity);
+		}
+		
+		if (BLOCKING.equals(type)) {
+			return new BlockingMessageQueue(capacity);
+		}
+		
+		try {
+			return (MessageQueue) Class.forName(type).getConstructor(int.class).newInstance(capacity);
+		} catch (final Exception e) {
+			throw new WoodyException("Invalid bounded mailbox queue type " + type, e);
+		}
+	}
+
+	public static MessageQueue newQueue(final String type) {
+		if (MPSC.equals(type)) {
+			return new MpscLinkedQueue();
+		}
+
+		if (BLOCKING.equals(type)) {
+			return new BlockingMessageQueue();
+		}
+
+		try {
+			return (MessageQueue) Class.forName(type).newInstance();
+		} catch (final Exception e) {
+			throw new WoodyException("Invalid mailbox queue type " + type, e);
+		}
+	}
+
+	private static String queueType() {
+		final String propValue = System.getProperty("woody.mailbox.queue");
+
+		if (propValue != null) {
+			return propValue;
+		}
+
+		return MPSC;
+	}
+}
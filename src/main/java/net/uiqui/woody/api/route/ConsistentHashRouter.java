@@ -0,0 +1,89 @@
+/*
+ * Woody - Basic Actor model implementation
+ * 
+ * Copyright (C) 2017 Joaquim Rocha <jrocha@gmailbox.org>
+ * 
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package net.uiqui.woody.api.route;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+
+import net.uiqui.woody.api.ActorMailbox;
+
+/*
+ * Messages with the same first argument always go to the same worker, each worker
+ * owns VIRTUAL_NODES points of a hash ring. Messages without arguments use round robin
+ */
+public class ConsistentHashRouter implements Router {
+	private static final int VIRTUAL_NODES = 160;
+	
+	private final RoundRobinRouter fallback = new RoundRobinRouter();
+	private final int[] points;
+	private final int[] owners;
+	
+	public ConsistentHashRouter(final int workers) {
+		final long[] ring = new long[workers * VIRTUAL_NODES];
+		
+		for (int worker = 0; worker < workers; worker++) {
+			for (int node = 0; node < VIRTUAL_NODES; node++) {
+				final int point = mix(worker * VIRTUAL_NODES + node);
+				// Point on the high bits, owner on the low bits, sorting keeps them together
+				ring[worker * VIRTUAL_NODES + node] = ((long) point << 32) | worker;
+			}
+		}
+		
+		Arrays.sort(ring);
+		
+		this.points = new int[ring.length];
+		this.owners = new int[ring.length];
+		
+		for (int i = 0; i < ring.length; i++) {
+			points[i] = (int) (ring[i] >> 32);
+			owners[i] = (int) ring[i];
+		}
+	}
+
+	@Override
+	public int route(final Method method, final Object[] args, final ActorMailbox[] workers) {
+		if (args == null || args.length == 0 || args[0] == null) {
+			return fallback.route(method, args, workers);
+		}
+		
+		return ownerOf(args[0]);
+	}
+	
+	// Null keys are all sent to the same worker
+	public int ownerOf(final Object key) {
+		final int hash = mix(key != null ? key.hashCode() : 0);
+		int index = Arrays.binarySearch(points, hash);
+		
+		if (index < 0) {
+			index = -index - 1;
+		}
+		
+		return owners[index == points.length ? 0 : index];
+	}
+	
+	// Murmur3 finalizer, spreads keys with close hash codes
+	private static int mix(final int value) {
+		int hash = value;
+		hash ^= hash >>> 16;
+		hash *= 0x85ebca6b;
+		hash ^= hash >>> 13;
+		hash *= 0xc2b2ae35;
+		hash ^= hash >>> 16;
+		return hash;
+	}
+}
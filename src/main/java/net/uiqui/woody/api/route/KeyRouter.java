@@ -0,0 +1,51 @@
+/*
+ * Woody - Basic Actor model implementation
+ * 
+ * Copyright (C) 2017 Joaquim Rocha <jrocha@gmailbox.org>
+ * 
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package net.uiqui.woody.api.route;
+
+import java.lang.reflect.Method;
+
+import net.uiqui.woody.api.ActorMailbox;
+import net.uiqui.woody.api.invoke.DispatchTable;
+
+/*
+ * Partitions the messages by the argument annotated with Key, messages with the
+ * same key are always processed by the same worker, in the order they were sent.
+ * Methods without a Key argument use round robin
+ */
+public class KeyRouter implements Router {
+	private final RoundRobinRouter fallback = new RoundRobinRouter();
+	private DispatchTable table = null;
+	private ConsistentHashRouter ring = null;
+	
+	public KeyRouter(final Class<?> type, final int workers) {
+		this.table = DispatchTable.get(type);
+		this.ring = new ConsistentHashRouter(workers);
+	}
+
+	@Override
+	public int route(final Method method, final Object[] args, final ActorMailbox[] workers) {
+		final int index = table.indexOf(method);
+		final int key = index >= 0 ? table.getKeyIndex(index) : -1;
+		
+		if (key < 0) {
+			return fallback.route(method, args, workers);
+		}
+		
+		return ring.ownerOf(args[key]);
+	}
+}
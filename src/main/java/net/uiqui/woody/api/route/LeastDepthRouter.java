@@ -0,0 +1,48 @@
+/*
+ * Woody - Basic Actor model implementation
+ * 
+ * Copyright (C) 2017 Joaquim Rocha <jrocha@gmailbox.org>
+ * 
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package net.uiqui.woody.api.route;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ThreadLocalRandom;
+
+import net.uiqui.woody.api.ActorMailbox;
+
+/*
+ * Sends the message to the worker with the smallest load (queued messages plus the
+ * one being processed), the scan starts on a random worker so the ties are spread
+ */
+public class LeastDepthRouter implements Router {
+	@Override
+	public int route(final Method method, final Object[] args, final ActorMailbox[] workers) {
+		final int start = ThreadLocalRandom.current().nextInt(workers.length);
+		int selected = start;
+		int depth = workers[start].load();
+		
+		for (int i = 1; i < workers.length && depth > 0; i++) {
+			final int index = (start + i) % workers.length;
+			final int load = workers[index].load();
+			
+			if (load < depth) {
+				selected = index;
+				depth = load;
+			}
+		}
+		
+		return selected;
+	}
+}
@@ -0,0 +1,41 @@
+/*
+ * Woody - Basic Actor model implementation
+ * 
+ * Copyright (C) 2017 Joaquim Rocha <jrocha@gmailbox.org>
+ * 
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package net.uiqui.woody.api.route;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ThreadLocalRandom;
+
+import net.uiqui.woody.api.ActorMailbox;
+
+/*
+ * Power of two choices, compares the mailboxes of two random workers
+ * and picks the least loaded one
+ */
+public class PowerOfTwoRouter implements Router {
+	@Override
+	public int route(final Method method, final Object[] args, final ActorMailbox[] workers) {
+		if (workers.length == 1) {
+			return 0;
+		}
+		
+		final ThreadLocalRandom random = ThreadLocalRandom.current();
+		final int first = random.nextInt(workers.length);
+		final int second = (first + 1 + random.nextInt(workers.length - 1)) % workers.length;
+		return workers[first].load() <= workers[second].load() ? first : second;
+	}
+}
@@ -15,21 +15,16 @@
  *  See the License for the specific language governing permissions and
  *  limitations under the License.
  */
-package net.uiqui.woody.api.util;
+package net.uiqui.woody.api.route;
 
 import java.lang.reflect.Method;
-import java.util.Arrays;
 
-public class HashCode {
-	public static Integer get(final Method method) {
-		if (method == null) {
-			return null;
-		}
-		
-		int hashCode = 1;
-		hashCode = 31 * hashCode + method.getDeclaringClass().getName().hashCode();
-		hashCode = 31 * hashCode + method.getName().hashCode();
-		hashCode = 31 * hashCode + Arrays.hashCode(method.getParameterTypes());
-		return hashCode;
-	}
+import net.uiqui.woody.api.ActorMailbox;
+
+/*
+ * Chooses the pool worker that receives a message, called concurrently
+ * by every sender so implementations must not lock
+ */
+public interface Router {
+	public int route(final Method method, final Object[] args, final ActorMailbox[] workers);
 }
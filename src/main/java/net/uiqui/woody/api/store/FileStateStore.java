@@ -0,0 +1,104 @@
+/*
+ * Woody - Basic Actor model implementation
+ * 
+ * Copyright (C) 2017 Joaquim Rocha <jrocha@gmailbox.org>
+ * 
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package net.uiqui.woody.api.store;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+import net.uiqui.woody.api.error.WoodyException;
+
+/*
+ * One file per actor on the directory, the states are serialized and must be Serializable.
+ * The file is replaced atomically, a failure while saving keeps the previous state
+ */
+public class FileStateStore implements StateStore {
+	private File directory = null;
+	
+	public FileStateStore(final File directory) {
+		if (!directory.isDirectory() && !directory.mkdirs()) {
+			throw new WoodyException("Unable to create the state directory " + directory);
+		}
+		
+		this.directory = directory;
+	}
+
+	@Override
+	public Object load(final String name) {
+		final File file = fileOf(name, ".state");
+		
+		if (!file.exists()) {
+			return null;
+		}
+		
+		try {
+			final ObjectInputStream in = new ObjectInputStream(new FileInputStream(file));
+			
+			try {
+				return in.readObject();
+			} finally {
+				in.close();
+			}
+		} catch (final IOException e) {
+			throw new WoodyException("Error loading the state of " + name, e);
+		} catch (final ClassNotFoundException e) {
+			throw new WoodyException("Error loading the state of " + name, e);
+		}
+	}
+
+	@Override
+	public void save(final String name, final Object state) {
+		final File tmp = fileOf(name, ".tmp");
+		
+		try {
+			final ObjectOutputStream out = new ObjectOutputStream(new FileOutputStream(tmp));
+			
+			try {
+				out.writeObject(state);
+			} finally {
+				out.close();
+			}
+			
+			Files.move(tmp.toPath(), fileOf(name, ".state").toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (final IOException e) {
+			tmp.delete();
+			throw new WoodyException("Error saving the state of " + name, e);
+		}
+	}
+
+	@Override
+	public void remove(final String name) {
+		fileOf(name, ".state").delete();
+	}
+	
+	// Encoded, the actor names may have any character
+	private File fileOf(final String name, final String extension) {
+		try {
+			return new File(directory, URLEncoder.encode(name, "UTF-8") + extension);
+		} catch (final UnsupportedEncodingException e) {
+			throw new WoodyException(e);
+		}
+	}
+}
@@ -0,0 +1,43 @@
+/*
+ * Woody - Basic Actor model implementation
+ * 
+ * Copyright (C) 2017 Joaquim Rocha <jrocha@gmailbox.org>
+ * 
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package net.uiqui.woody.api.store;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+public class MemoryStateStore implements StateStore {
+	private final ConcurrentHashMap<String, Object> states = new ConcurrentHashMap<String, Object>();
+
+	@Override
+	public Object load(final String name) {
+		return states.get(name);
+	}
+
+	@Override
+	public void save(final String name, final Object state) {
+		states.put(name, state);
+	}
+
+	@Override
+	public void remove(final String name) {
+		states.remove(name);
+	}
+	
+	public int size() {
+		return states.size();
+	}
+}
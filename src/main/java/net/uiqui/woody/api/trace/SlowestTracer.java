@@ -0,0 +1,116 @@
+/*
+ * Woody - Basic Actor model implementation
+ * 
+ * Copyright (C) 2017 Joaquim Rocha <jrocha@gmailbox.org>
+ * 
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package net.uiqui.woody.api.trace;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+ * Keeps the slowest traces of each actor, only sampled messages get here
+ * so the lock on the actor heap isn't on the hot path
+ */
+public class SlowestTracer implements Tracer {
+	private static final Comparator<Trace> BY_TOTAL_TIME = new Comparator<Trace>() {
+		public int compare(final Trace t1, final Trace t2) {
+			return Long.compare(t1.getTotalTime(), t2.getTotalTime());
+		}
+	};
+	
+	private final ConcurrentHashMap<String, PriorityQueue<Trace>> slowest = new ConcurrentHashMap<String, PriorityQueue<Trace>>();
+	private int size = 0;
+	
+	public SlowestTracer() {
+		this(10);
+	}
+	
+	public SlowestTracer(final int size) {
+		this.size = size;
+	}
+
+	public void enqueued(final Trace trace) {
+	}
+
+	public void dequeued(final Trace trace) {
+	}
+
+	public void executed(final Trace trace) {
+	}
+
+	public void completed(final Trace trace) {
+		PriorityQueue<Trace> traces = slowest.get(trace.getActor());
+		
+		if (traces == null) {
+			final PriorityQueue<Trace> newTraces = new PriorityQueue<Trace>(size + 1, BY_TOTAL_TIME);
+			traces = slowest.putIfAbsent(trace.getActor(), newTraces);
+			
+			if (traces == null) {
+				traces = newTraces;
+			}
+		}
+		
+		synchronized (traces) {
+			traces.offer(trace);
+			
+			if (traces.size() > size) {
+				traces.poll();
+			}
+		}
+	}
+	
+	public Set<String> getActors() {
+		return slowest.keySet();
+	}
+	
+	// Slowest first
+	public List<Trace> getSlowest(final String actor) {
+		final PriorityQueue<Trace> traces = slowest.get(actor);
+		
+		if (traces == null) {
+			return Collections.emptyList();
+		}
+		
+		final List<Trace> list;
+		
+		synchronized (traces) {
+			list = new ArrayList<Trace>(traces);
+		}
+		
+		Collections.sort(list, Collections.reverseOrder(BY_TOTAL_TIME));
+		return list;
+	}
+	
+	public void dump(final PrintStream out) {
+		for (final String actor : slowest.keySet()) {
+			out.println(actor + ":");
+			
+			for (final Trace trace : getSlowest(actor)) {
+				out.println("  " + trace);
+			}
+		}
+	}
+	
+	public void clear() {
+		slowest.clear();
+	}
+}
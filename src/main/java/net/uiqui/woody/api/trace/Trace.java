@@ -0,0 +1,123 @@
+/*
+ * Woody - Basic Actor model implementation
+ * 
+ * Copyright (C) 2017 Joaquim Rocha <jrocha@gmailbox.org>
+ * 
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package net.uiqui.woody.api.trace;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Timestamps (System.nanoTime) of one sampled message, the time spent blocked
+ * on a full mailbox is part of the queue time
+ */
+public class Trace {
+	private Tracer tracer = null;
+	private String actor = null;
+	private Method method = null;
+	private boolean waiting = false;
+	private String thread = null;
+	
+	private long invoked = 0;
+	private long enqueued = 0;
+	private long dequeued = 0;
+	private long started = 0;
+	private long finished = 0;
+	private long resumed = 0;
+	
+	public Trace(final Tracer tracer, final String actor, final Method method, final boolean waiting) {
+		this.tracer = tracer;
+		this.actor = actor;
+		this.method = method;
+		this.waiting = waiting;
+		this.invoked = System.nanoTime();
+	}
+	
+	public void enqueued() {
+		enqueued = System.nanoTime();
+		tracer.enqueued(this);
+	}
+	
+	public void dequeued() {
+		dequeued = System.nanoTime();
+		thread = Thread.currentThread().getName();
+		tracer.dequeued(this);
+	}
+	
+	public void started() {
+		started = System.nanoTime();
+	}
+	
+	public void executed() {
+		finished = System.nanoTime();
+		tracer.executed(this);
+		
+		if (!waiting) {
+			tracer.completed(this);
+		}
+	}
+	
+	public void resumed() {
+		resumed = System.nanoTime();
+		tracer.completed(this);
+	}
+
+	public String getActor() {
+		return actor;
+	}
+
+	public Method getMethod() {
+		return method;
+	}
+
+	public String getThread() {
+		return thread;
+	}
+
+	public long getEnqueueTime() {
+		return elapsed(invoked, enqueued);
+	}
+
+	public long getQueueTime() {
+		return elapsed(enqueued, dequeued);
+	}
+
+	public long getExecutionTime() {
+		return elapsed(started, finished);
+	}
+
+	public long getReplyTime() {
+		return elapsed(finished, resumed);
+	}
+
+	public long getTotalTime() {
+		return elapsed(invoked, resumed != 0 ? resumed : finished);
+	}
+	
+	private static long elapsed(final long from, final long to) {
+		return from != 0 && to != 0 ? to - from : 0;
+	}
+
+	@Override
+	public String toString() {
+		return actor + "." + method.getName() + " on " + thread + ": total=" + micros(getTotalTime()) + ", enqueue=" + micros(getEnqueueTime()) + ", queue=" + micros(getQueueTime()) 
+				+ ", execution=" + micros(getExecutionTime()) + ", reply=" + micros(getReplyTime());
+	}
+	
+	private static String micros(final long nanos) {
+		return TimeUnit.NANOSECONDS.toMicros(nanos) + "us";
+	}
+}
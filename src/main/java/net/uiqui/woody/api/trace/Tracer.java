@@ -0,0 +1,36 @@
+/*
+ * Woody - Basic Actor model implementation
+ * 
+ * Copyright (C) 2017 Joaquim Rocha <jrocha@gmailbox.org>
+ * 
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package net.uiqui.woody.api.trace;
+
+/*
+ * Receives the sampled messages at each stage, the callbacks run on the thread
+ * handling the message and must not block or throw
+ */
+public interface Tracer {
+	// The message was built by the proxy and is about to be offered to the mailbox
+	public void enqueued(final Trace trace);
+
+	// The actor took the message from the mailbox
+	public void dequeued(final Trace trace);
+
+	// The actor method returned
+	public void executed(final Trace trace);
+
+	// Last stage, for blocking calls after the caller woke up with the reply
+	public void completed(final Trace trace);
+}
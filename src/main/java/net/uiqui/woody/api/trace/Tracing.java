@@ -0,0 +1,85 @@
+/*
+ * Woody - Basic Actor model implementation
+ * 
+ * Copyright (C) 2017 Joaquim Rocha <jrocha@gmailbox.org>
+ * 
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package net.uiqui.woody.api.trace;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ThreadLocalRandom;
+
+import net.uiqui.woody.api.error.WoodyException;
+
+/*
+ * Samples one in every sampling messages, messages that aren't sampled
+ * carry no trace and take no timestamps
+ */
+public class Tracing {
+	private static volatile Tracer tracer = defaultTracer();
+	private static volatile int sampling = defaultSampling();
+	
+	public static void enable(final Tracer newTracer, final int newSampling) {
+		sampling = Math.max(newSampling, 1);
+		tracer = newTracer;
+	}
+	
+	public static void disable() {
+		tracer = null;
+	}
+	
+	public static Tracer getTracer() {
+		return tracer;
+	}
+	
+	public static Trace sample(final String actor, final Method method, final boolean waiting) {
+		final Tracer current = tracer;
+		
+		if (current == null) {
+			return null;
+		}
+		
+		final int every = sampling;
+		
+		if (every > 1 && ThreadLocalRandom.current().nextInt(every) != 0) {
+			return null;
+		}
+		
+		return new Trace(current, actor != null ? actor : method.getDeclaringClass().getSimpleName(), method, waiting);
+	}
+	
+	private static Tracer defaultTracer() {
+		final String propValue = System.getProperty("woody.tracer");
+
+		if (propValue == null) {
+			return null;
+		}
+		
+		try {
+			return (Tracer) Class.forName(propValue).newInstance();
+		} catch (final Exception e) {
+			throw new WoodyException("Invalid tracer " + propValue, e);
+		}
+	}
+	
+	private static int defaultSampling() {
+		final String propValue = System.getProperty("woody.trace.sampling");
+
+		if (propValue != null) {
+			return Math.max(Integer.valueOf(propValue), 1);
+		}
+
+		return 100;
+	}
+}
@@ -0,0 +1,70 @@
+/*
+ * Woody - Basic Actor model implementation
+ * 
+ * Copyright (C) 2017 Joaquim Rocha <jrocha@gmailbox.org>
+ * 
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package net.uiqui.woody.api.util;
+
+/*
+ * Deadlines are System.nanoTime() values, zero means no deadline.
+ * The deadline of the call being processed by the current thread is
+ * inherited by the calls it makes to other actors
+ */
+public class Deadline {
+	public static final long NONE = 0L;
+	
+	private static final ThreadLocal<long[]> CURRENT = new ThreadLocal<long[]>() {
+		protected long[] initialValue() {
+			return new long[] { NONE };
+		}
+	};
+	
+	public static long current() {
+		return CURRENT.get()[0];
+	}
+	
+	// Returns the previous deadline, to be restored after the call
+	public static long enter(final long deadline) {
+		final long[] current = CURRENT.get();
+		final long previous = current[0];
+		current[0] = deadline;
+		return previous;
+	}
+	
+	public static long after(final long timeoutNanos) {
+		final long deadline = System.nanoTime() + timeoutNanos;
+		return deadline != NONE ? deadline : deadline + 1;
+	}
+	
+	public static long earliest(final long deadline1, final long deadline2) {
+		if (deadline1 == NONE) {
+			return deadline2;
+		}
+		
+		if (deadline2 == NONE) {
+			return deadline1;
+		}
+		
+		return deadline1 - deadline2 < 0 ? deadline1 : deadline2;
+	}
+	
+	public static long remaining(final long deadline) {
+		return deadline - System.nanoTime();
+	}
+	
+	public static boolean isExpired(final long deadline) {
+		return deadline != NONE && remaining(deadline) <= 0;
+	}
+}
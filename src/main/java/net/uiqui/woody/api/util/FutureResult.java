@@ -19,24 +19,36 @@ package net.uiqui.woody.api.util;
 
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
 import java.util.concurrent.Future;
-import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
 
 public class FutureResult<T> implements Future<T> {
 	private static final int STATE_WAITING = 0;
 	private static final int STATE_RUNNING = 1;
-	private static final int STATE_DONE = 2;
-	private static final int STATE_CANCELED = 3;
+	private static final int STATE_COMPLETING = 2;
+	private static final int STATE_DONE = 3;
+	private static final int STATE_CANCELED = 4;
 	
-	// Reply
+	private static final int SPINS = Runtime.getRuntime().availableProcessors() > 1 ? 64 : 0;
+	
+	@SuppressWarnings("rawtypes")
+	private static final AtomicIntegerFieldUpdater<FutureResult> STATE = AtomicIntegerFieldUpdater.newUpdater(FutureResult.class, "state");
+	@SuppressWarnings("rawtypes")
+	private static final AtomicReferenceFieldUpdater<FutureResult, Waiter> WAITERS = AtomicReferenceFieldUpdater.newUpdater(FutureResult.class, Waiter.class, "waiters");
+	
+	// Reply, published by the write to state
 	private T result = null;
 	private Throwable cause = null;
 	
 	// Future
-	private final Semaphore clientParking = new Semaphore(0);
 	private volatile int state = STATE_WAITING;
+	private volatile Waiter waiters = null;
 
 	// Future implementation
 	public boolean cancel(final boolean mayInterruptIfRunning) {		
@@ -53,14 +65,14 @@ public class FutureResult<T> implements Future<T> {
 
 	public T get() throws InterruptedException, ExecutionException {
 		if (state < STATE_DONE) {
-			clientParking.acquire();
+			await(false, 0L);
 		}
 		
 		return report();
 	}
 
 	public T get(final long timeout, final TimeUnit unit) throws TimeoutException, InterruptedException, ExecutionException {
-		if (state >= STATE_DONE || clientParking.tryAcquire(timeout, TimeUnit.MILLISECONDS)) {
+		if (state >= STATE_DONE || await(true, unit.toNanos(timeout))) {
 			return report();
 		} else {
 			throw new TimeoutException();
@@ -92,22 +104,141 @@ public class FutureResult<T> implements Future<T> {
 		return tryChangeState(STATE_RUNNING, null, null);
 	}
 	
-	private synchronized boolean tryChangeState(final int newState, final T result, final Throwable cause) {
-		if (state == STATE_CANCELED || state == STATE_DONE) {
-			return false;
+	protected T getResult() {
+		return result;
+	}
+	
+	protected Throwable getCause() {
+		return cause;
+	}
+	
+	// Invoked once, after the request is done or canceled
+	protected void done() {
+	}
+	
+	// Only safe when no other thread holds a reference to the request
+	protected void reset() {
+		result = null;
+		cause = null;
+		waiters = null;
+		state = STATE_WAITING;
+	}
+	
+	private boolean tryChangeState(final int newState, final T result, final Throwable cause) {
+		for (;;) {
+			final int current = state;
+			
+			if (current >= STATE_COMPLETING) {
+				return false;
+			}
+			
+			if (current == STATE_RUNNING && newState != STATE_DONE) {
+				return false;
+			}
+			
+			if (newState == STATE_DONE) {
+				if (STATE.compareAndSet(this, current, STATE_COMPLETING)) {
+					this.result = result;
+					this.cause = cause;
+					this.state = STATE_DONE;
+					break;
+				}
+			} else if (STATE.compareAndSet(this, current, newState)) {
+				if (newState == STATE_RUNNING) {
+					return true;
+				}
+				
+				break;
+			}
 		}
 		
-		if (state == STATE_RUNNING && newState != STATE_DONE) {
-			return false;
+		wakeUpWaiters();
+		done();
+		
+		return true;
+	}
+	
+	private void wakeUpWaiters() {
+		if (waiters == null) {
+			return;
 		}
 		
-		if (newState == STATE_DONE) {
-			this.result = result;
-			this.cause = cause;			
-			clientParking.release();
+		Waiter waiter = WAITERS.getAndSet(this, null);
+		
+		while (waiter != null) {
+			final Thread thread = waiter.thread;
+			
+			if (thread != null) {
+				waiter.thread = null;
+				LockSupport.unpark(thread);
+			}
+			
+			waiter = waiter.next;
 		}
+	}
+	
+	// Spins for a while, then parks the caller until the request is done or the timeout expires
+	private boolean await(final boolean timed, long nanos) throws InterruptedException {
+		final long deadline = timed ? System.nanoTime() + nanos : 0L;
+		Waiter waiter = null;
+		int spins = SPINS;
 		
-		this.state = newState;
-		return true;
+		for (;;) {
+			final int current = state;
+			
+			if (current >= STATE_DONE) {
+				if (waiter != null) {
+					waiter.thread = null;
+				}
+				
+				return true;
+			}
+			
+			if (current == STATE_COMPLETING) {
+				Thread.yield();
+			} else if (Thread.interrupted()) {
+				if (waiter != null) {
+					waiter.thread = null;
+				}
+				
+				throw new InterruptedException();
+			} else if (spins > 0) {
+				spins--;
+			} else if (waiter == null) {
+				waiter = new Waiter();
+			} else if (!waiter.queued) {
+				waiter.next = waiters;
+				waiter.queued = WAITERS.compareAndSet(this, waiter.next, waiter);
+			} else if (timed) {
+				nanos = deadline - System.nanoTime();
+				
+				if (nanos <= 0L) {
+					waiter.thread = null;
+					return false;
+				}
+				
+				LockSupport.parkNanos(this, nanos);
+			} else if (Thread.currentThread() instanceof ForkJoinWorkerThread) {
+				// Lets the pool add a compensation thread while the worker waits
+				ForkJoinPool.managedBlock(new ForkJoinPool.ManagedBlocker() {
+					public boolean block() throws InterruptedException {
+						LockSupport.park(FutureResult.this);
+						return true;
+					}
+					
+					public boolean isReleasable() {
+						return state >= STATE_DONE;
+					}
+				});
+			} else {
+				LockSupport.park(this);
+			}
+		}
+	}
+	
+	private static final class Waiter {
+		private volatile Thread thread = Thread.currentThread();
+		private Waiter next = null;
+		private boolean queued = false;
 	}
 }
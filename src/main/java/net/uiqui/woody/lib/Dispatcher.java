@@ -0,0 +1,58 @@
+/*
+ * Woody - Basic Actor model implementation
+ * 
+ * Copyright (C) 2017 Joaquim Rocha <jrocha@gmailbox.org>
+ * 
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package net.uiqui.woody.lib;
+
+import java.util.concurrent.Executor;
+
+/*
+ * Runs the actor activations on an executor, each activation processes up to
+ * throughput messages before the actor goes back to the end of the executor queue
+ */
+public class Dispatcher {
+	private static final Dispatcher DEFAULT = new Dispatcher(Runner.THREAD_POOL, defaultThroughput());
+	
+	private Executor executor = null;
+	private int throughput = 0;
+
+	public Dispatcher(final Executor executor, final int throughput) {
+		this.executor = executor;
+		this.throughput = throughput > 0 ? throughput : Integer.MAX_VALUE;
+	}
+	
+	public static Dispatcher getDefault() {
+		return DEFAULT;
+	}
+	
+	public void dispatch(final Runnable activation) {
+		executor.execute(activation);
+	}
+
+	public int getThroughput() {
+		return throughput;
+	}
+	
+	private static int defaultThroughput() {
+		final String propValue = System.getProperty("woody.dispatcher.throughput");
+
+		if (propValue != null) {
+			return Integer.valueOf(propValue);
+		}
+
+		return 100;
+	}
+}
@@ -0,0 +1,82 @@
+/*
+ * Woody - Basic Actor model implementation
+ * 
+ * Copyright (C) 2017 Joaquim Rocha <jrocha@gmailbox.org>
+ * 
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package net.uiqui.woody.lib;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+/*
+ * Named dispatchers, registered by the application or created on first use from the
+ * system properties woody.dispatcher.<name>.executor.type, woody.dispatcher.<name>.pool.size
+ * and woody.dispatcher.<name>.throughput
+ */
+public class Dispatchers {
+	public static final String DEFAULT = "default";
+	
+	private static final ConcurrentHashMap<String, Dispatcher> DISPATCHERS = new ConcurrentHashMap<String, Dispatcher>();
+	
+	public static void register(final String name, final Dispatcher dispatcher) {
+		if (DEFAULT.equals(name)) {
+			throw new IllegalArgumentException("The default dispatcher can't be replaced");
+		}
+		
+		DISPATCHERS.put(name, dispatcher);
+	}
+	
+	public static Dispatcher get(final String name) {
+		if (DEFAULT.equals(name)) {
+			return Dispatcher.getDefault();
+		}
+		
+		final Dispatcher dispatcher = DISPATCHERS.get(name);
+		
+		if (dispatcher != null) {
+			return dispatcher;
+		}
+		
+		return newDispatcher(name);
+	}
+	
+	// Synchronized, the executor threads must only be created once
+	private static synchronized Dispatcher newDispatcher(final String name) {
+		final Dispatcher dispatcher = DISPATCHERS.get(name);
+		
+		if (dispatcher != null) {
+			return dispatcher;
+		}
+		
+		final String prefix = "woody.dispatcher." + name + ".";
+		final String type = System.getProperty(prefix + "executor.type", Runner.THREAD_POOL_EXECUTOR);
+		final int poolSize = intProperty(prefix + "pool.size", Runtime.getRuntime().availableProcessors());
+		final int throughput = intProperty(prefix + "throughput", Dispatcher.getDefault().getThroughput());
+		final Executor executor = Runner.newExecutor(name, type, poolSize);
+		final Dispatcher newDispatcher = new Dispatcher(executor, throughput);
+		DISPATCHERS.put(name, newDispatcher);
+		return newDispatcher;
+	}
+	
+	private static int intProperty(final String name, final int defaultValue) {
+		final String propValue = System.getProperty(name);
+
+		if (propValue != null) {
+			return Integer.valueOf(propValue);
+		}
+
+		return defaultValue;
+	}
+}
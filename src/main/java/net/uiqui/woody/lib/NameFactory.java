@@ -17,24 +17,18 @@
  */
 package net.uiqui.woody.lib;
 
-import java.security.SecureRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
 
+/*
+ * Names of the anonymous actors, a counter keeps them unique on the JVM and the 
+ * random prefix tells apart the names generated by different processes
+ */
 public class NameFactory {
-	private static final SecureRandom numberGenerator = new SecureRandom();
+	private static final String PREFIX = Integer.toHexString(ThreadLocalRandom.current().nextInt()) + "-";
+	private static final AtomicLong COUNTER = new AtomicLong(0);
 
 	public static String get() {
-		final StringBuilder builder = new StringBuilder();
-		
-		for (int i = 0; i < 4; i++) {
-			final int randInt = numberGenerator.nextInt();
-			
-			if (i > 0) {
-				builder.append("-");
-			}
-			
-			builder.append(Integer.toHexString(randInt));
-		}
-
-		return builder.toString();
+		return PREFIX + Long.toHexString(COUNTER.incrementAndGet());
 	}
 }
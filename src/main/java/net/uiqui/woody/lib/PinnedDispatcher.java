@@ -0,0 +1,111 @@
+/*
+ * Woody - Basic Actor model implementation
+ * 
+ * Copyright (C) 2017 Joaquim Rocha <jrocha@gmailbox.org>
+ * 
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package net.uiqui.woody.lib;
+
+import java.lang.ref.WeakReference;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/*
+ * Dedicated thread for one actor, the mailbox never has more than one activation
+ * pending so a single slot is enough. The thread ends when the dispatcher (and so
+ * the actor mailbox) is garbage collected
+ */
+public class PinnedDispatcher extends Dispatcher {
+	private static final AtomicInteger COUNTER = new AtomicInteger(0);
+	private static final long CHECK_INTERVAL = TimeUnit.SECONDS.toNanos(1);
+	private static final int SPINS_PER_CHECK = 1 << 20;
+	
+	private Slot slot = null;
+	
+	public PinnedDispatcher(final WaitStrategy strategy) {
+		super(null, 0);
+		this.slot = new Slot(strategy);
+		
+		final Thread thread = Runner.THREAD_FACTORY.newThread(new Worker(this, slot));
+		thread.setName("woody-pinned-" + COUNTER.incrementAndGet());
+		slot.thread = thread;
+		thread.start();
+	}
+	
+	@Override
+	public void dispatch(final Runnable activation) {
+		slot.activation = activation;
+		
+		if (slot.strategy == WaitStrategy.PARK) {
+			LockSupport.unpark(slot.thread);
+		}
+	}
+	
+	private static class Slot {
+		public final WaitStrategy strategy;
+		public volatile Runnable activation = null;
+		public volatile Thread thread = null;
+		
+		public Slot(final WaitStrategy strategy) {
+			this.strategy = strategy;
+		}
+	}
+	
+	// Only references the dispatcher weakly, otherwise the thread would keep it alive
+	private static class Worker implements Runnable {
+		private final WeakReference<PinnedDispatcher> dispatcher;
+		private final Slot slot;
+		
+		public Worker(final PinnedDispatcher dispatcher, final Slot slot) {
+			this.dispatcher = new WeakReference<PinnedDispatcher>(dispatcher);
+			this.slot = slot;
+		}
+		
+		public void run() {
+			int spins = 0;
+			
+			while (true) {
+				final Runnable activation = slot.activation;
+				
+				if (activation != null) {
+					slot.activation = null;
+					activation.run();
+					continue;
+				}
+				
+				switch (slot.strategy) {
+				case PARK:
+					LockSupport.parkNanos(this, CHECK_INTERVAL);
+					spins = SPINS_PER_CHECK;
+					break;
+				case YIELD:
+					Thread.yield();
+					spins++;
+					break;
+				default:
+					spins++;
+				}
+				
+				if (spins >= SPINS_PER_CHECK) {
+					spins = 0;
+					
+					if (dispatcher.get() == null && slot.activation == null) {
+						return;
+					}
+				}
+			}
+		}
+	}
+}
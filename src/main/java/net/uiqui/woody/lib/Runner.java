@@ -20,13 +20,23 @@ package net.uiqui.woody.lib;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import net.uiqui.woody.api.metrics.ExecutorSnapshot;
 
 public class Runner {
+	public static final String THREAD_POOL_EXECUTOR = "thread-pool";
+	public static final String FORK_JOIN_EXECUTOR = "fork-join";
+	public static final String VIRTUAL_EXECUTOR = "virtual";
+	
 	private static final boolean USE_DAEMON_THREADS = useDeamonThreads();
+	private static final String EXECUTOR_TYPE = executorType();
 
 	protected static final ThreadFactory THREAD_FACTORY = new ThreadFactory() {
 		public Thread newThread(final Runnable command) {
@@ -36,7 +46,17 @@ public class Runner {
 		}
 	};
 
-	private static final Executor THREAD_POOL = newThreadPoolExecutor();
+	protected static final ForkJoinPool.ForkJoinWorkerThreadFactory WORKER_FACTORY = new ForkJoinPool.ForkJoinWorkerThreadFactory() {
+		public ForkJoinWorkerThread newThread(final ForkJoinPool pool) {
+			final ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+			thread.setDaemon(USE_DAEMON_THREADS);
+			return thread;
+		}
+	};
+
+	private static final ThreadFactory TASK_FACTORY = VIRTUAL_EXECUTOR.equals(EXECUTOR_TYPE) ? newVirtualThreadFactory() : THREAD_FACTORY;
+
+	protected static final Executor THREAD_POOL = newExecutor();
 	private static final Executor THREAD_QUEUE = Executors.newSingleThreadExecutor(THREAD_FACTORY);
 
 	public static void run(final Runnable command) {
@@ -44,7 +64,7 @@ public class Runner {
 	}
 
 	public static void start(final Runnable command) {
-		final Thread thread = THREAD_FACTORY.newThread(command);
+		final Thread thread = TASK_FACTORY.newThread(command);
 		thread.start();
 	}
 
@@ -52,6 +72,35 @@ public class Runner {
 		THREAD_QUEUE.execute(command);
 	}
 
+	/*
+	 * Executor for a named dispatcher, its threads are named woody-<name>-<n>
+	 */
+	public static Executor newExecutor(final String name, final String type, final int poolSize) {
+		if (FORK_JOIN_EXECUTOR.equals(type)) {
+			return new ForkJoinPool(poolSize, newWorkerFactory(name), null, true);
+		}
+
+		if (VIRTUAL_EXECUTOR.equals(type)) {
+			final ThreadFactory factory = VIRTUAL_EXECUTOR.equals(EXECUTOR_TYPE) ? TASK_FACTORY : newVirtualThreadFactory();
+			
+			return new Executor() {
+				public void execute(final Runnable command) {
+					factory.newThread(command).start();
+				}
+			};
+		}
+
+		if (THREAD_POOL_EXECUTOR.equals(type)) {
+			return Executors.newFixedThreadPool(poolSize, newThreadFactory(name));
+		}
+
+		throw new IllegalArgumentException("Invalid executor type " + type);
+	}
+
+	public static ExecutorSnapshot snapshot() {
+		return ExecutorSnapshot.of(EXECUTOR_TYPE, THREAD_POOL);
+	}
+
 	public static void sleep(final long delay, final TimeUnit unit) {
 		try {
 			Thread.sleep(unit.toMillis(delay));
@@ -63,6 +112,30 @@ public class Runner {
 		sleep(delay, TimeUnit.MILLISECONDS);
 	}	
 
+	private static ThreadFactory newThreadFactory(final String name) {
+		final AtomicInteger counter = new AtomicInteger(0);
+		
+		return new ThreadFactory() {
+			public Thread newThread(final Runnable command) {
+				final Thread thread = THREAD_FACTORY.newThread(command);
+				thread.setName("woody-" + name + "-" + counter.incrementAndGet());
+				return thread;
+			}
+		};
+	}
+
+	private static ForkJoinPool.ForkJoinWorkerThreadFactory newWorkerFactory(final String name) {
+		final AtomicInteger counter = new AtomicInteger(0);
+		
+		return new ForkJoinPool.ForkJoinWorkerThreadFactory() {
+			public ForkJoinWorkerThread newThread(final ForkJoinPool pool) {
+				final ForkJoinWorkerThread thread = WORKER_FACTORY.newThread(pool);
+				thread.setName("woody-" + name + "-" + counter.incrementAndGet());
+				return thread;
+			}
+		};
+	}
+
 	private static boolean useDeamonThreads() {
 		final String propValue = System.getProperty("woody.use.daemon.threads");
 
@@ -73,18 +146,79 @@ public class Runner {
 		return true;
 	}
 
-	private static int maxPoolSize() {
+	private static String executorType() {
+		final String propValue = System.getProperty("woody.executor.type");
+
+		if (propValue != null) {
+			return propValue;
+		}
+
+		return THREAD_POOL_EXECUTOR;
+	}
+
+	private static int maxPoolSize(final int defaultValue) {
 		final String propValue = System.getProperty("woody.max.pool.size");
 
 		if (propValue != null) {
 			return Integer.valueOf(propValue);
 		}
 
-		return Runtime.getRuntime().availableProcessors() * 50;
+		return defaultValue;
+	}
+
+	private static Executor newExecutor() {
+		if (FORK_JOIN_EXECUTOR.equals(EXECUTOR_TYPE)) {
+			return newForkJoinPool();
+		}
+
+		if (VIRTUAL_EXECUTOR.equals(EXECUTOR_TYPE)) {
+			return newVirtualThreadExecutor();
+		}
+
+		if (THREAD_POOL_EXECUTOR.equals(EXECUTOR_TYPE)) {
+			return newThreadPoolExecutor();
+		}
+
+		throw new IllegalArgumentException("Invalid executor type " + EXECUTOR_TYPE);
+	}
+
+	/*
+	 * One virtual thread per activation, blocking calls only park the virtual thread
+	 */
+	private static Executor newVirtualThreadExecutor() {
+		return new Executor() {
+			public void execute(final Runnable command) {
+				TASK_FACTORY.newThread(command).start();
+			}
+		};
+	}
+
+	// Thread.ofVirtual().factory() is resolved by reflection, the code must run on Java 8
+	private static ThreadFactory newVirtualThreadFactory() {
+		try {
+			final Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+			final Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+			return (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+		} catch (final Exception e) {
+			throw new IllegalStateException("The virtual executor requires Java 21 or newer", e);
+		}
+	}
+
+	/*
+	 * Async mode (FIFO local queues), activations scheduled from a worker thread
+	 * go to its own queue and are stolen by the idle workers
+	 */
+	private static ForkJoinPool newForkJoinPool() {
+		final int parallelism = maxPoolSize(Runtime.getRuntime().availableProcessors());
+		return new ForkJoinPool(parallelism, WORKER_FACTORY, null, true);
 	}
 
+	/*
+	 * The queue is unbounded, each actor has at most one activation queued,
+	 * the mailbox capacity is what bounds the messages and slows down the producers
+	 */
 	private static ThreadPoolExecutor newThreadPoolExecutor() {
-		final int maxPoolSize = maxPoolSize();
+		final int maxPoolSize = maxPoolSize(Runtime.getRuntime().availableProcessors() * 50);
 		final int availableProcessors = Runtime.getRuntime().availableProcessors();
 		final int corePoolSize = availableProcessors < maxPoolSize ? maxPoolSize : availableProcessors;
 		final BlockingQueue<Runnable> queue = new LinkedBlockingQueue<Runnable>();
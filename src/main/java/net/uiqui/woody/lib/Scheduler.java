@@ -17,20 +17,118 @@
  */
 package net.uiqui.woody.lib;
 
+import java.util.concurrent.Executor;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+/*
+ * Runs the timers (call timeouts, actor timers, pool resizing) on a hashed timing wheel,
+ * or on a ScheduledThreadPoolExecutor when woody.scheduler.type is executor.
+ * The timer commands run on the thread pool, the scheduler thread is never blocked by them
+ */
 public class Scheduler {
-	private static final ScheduledExecutorService EXECUTOR_SERVICE = new ScheduledThreadPoolExecutor(1, Runner.THREAD_FACTORY);
+	public static final String WHEEL_SCHEDULER = "wheel";
+	public static final String EXECUTOR_SCHEDULER = "executor";
+	
+	private static final Executor RUNNER = new Executor() {
+		public void execute(final Runnable command) {
+			Runner.run(command);
+		}
+	};
+	
+	private static final boolean USE_WHEEL = !EXECUTOR_SCHEDULER.equals(System.getProperty("woody.scheduler.type"));
+	private static final TimingWheel WHEEL = USE_WHEEL ? newTimingWheel() : null;
+
+	public static Timer timerAfter(final long delay, final Runnable command) {
+		if (WHEEL != null) {
+			return WHEEL.schedule(delay, 0L, TimeUnit.MILLISECONDS, command);
+		}
+		
+		return new FutureTimer(scheduleAfter(delay, command));
+	}
 
+	// Fixed rate, a run starts only after the previous one ended
+	public static Timer timerInterval(final long interval, final Runnable command) {
+		if (WHEEL != null) {
+			return WHEEL.schedule(interval, interval, TimeUnit.MILLISECONDS, command);
+		}
+		
+		return new FutureTimer(scheduleInterval(interval, command));
+	}
+	
+	// ScheduledFuture versions, always on the ScheduledThreadPoolExecutor
 	public static ScheduledFuture<?> scheduleAfter(final long delay, final Runnable command) {
-		return EXECUTOR_SERVICE.schedule(command, delay, TimeUnit.MILLISECONDS);
+		return ExecutorHolder.SERVICE.schedule(new Handoff(command), delay, TimeUnit.MILLISECONDS);
 	}
 
 	public static ScheduledFuture<?> scheduleInterval(final long interval, final Runnable command) {
-		return EXECUTOR_SERVICE.scheduleAtFixedRate(command, interval, interval, TimeUnit.MILLISECONDS);
+		return ExecutorHolder.SERVICE.scheduleAtFixedRate(new Handoff(command), interval, interval, TimeUnit.MILLISECONDS);
 	}
 
+	private static TimingWheel newTimingWheel() {
+		final long tick = Long.valueOf(System.getProperty("woody.scheduler.tick", "10"));
+		final int wheelSize = Integer.valueOf(System.getProperty("woody.scheduler.wheel.size", "512"));
+		return new TimingWheel(tick, TimeUnit.MILLISECONDS, wheelSize, RUNNER);
+	}
+	
+	// Created on first use, the wheel doesn't need it
+	private static class ExecutorHolder {
+		public static final ScheduledExecutorService SERVICE = newExecutorService();
+		
+		private static ScheduledExecutorService newExecutorService() {
+			final ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, Runner.THREAD_FACTORY);
+			// Call timeouts are canceled when the reply arrives, don't keep them on the queue
+			executor.setRemoveOnCancelPolicy(true);
+			return executor;
+		}
+	}
+	
+	// Runs the command on the thread pool, a periodic run is skipped while the previous one didn't end
+	private static class Handoff implements Runnable {
+		private final Runnable command;
+		private final AtomicBoolean running = new AtomicBoolean(false);
+		private final Runnable task = new Runnable() {
+			public void run() {
+				try {
+					command.run();
+				} catch (final Throwable e) {
+					final Thread thread = Thread.currentThread();
+					thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+				} finally {
+					running.set(false);
+				}
+			}
+		};
+		
+		public Handoff(final Runnable command) {
+			this.command = command;
+		}
+		
+		public void run() {
+			if (running.compareAndSet(false, true)) {
+				RUNNER.execute(task);
+			}
+		}
+	}
+	
+	private static class FutureTimer implements Timer {
+		private final ScheduledFuture<?> future;
+		
+		public FutureTimer(final ScheduledFuture<?> future) {
+			this.future = future;
+		}
+
+		@Override
+		public boolean cancel() {
+			return future.cancel(false);
+		}
+
+		@Override
+		public boolean isCancelled() {
+			return future.isCancelled();
+		}
+	}
 }
@@ -0,0 +1,232 @@
+/*
+ * Woody - Basic Actor model implementation
+ * 
+ * Copyright (C) 2017 Joaquim Rocha <jrocha@gmailbox.org>
+ * 
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package net.uiqui.woody.lib;
+
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
+
+/*
+ * Hashed timing wheel, the timers are kept on a ring of buckets, one per tick,
+ * scheduling and canceling are O(1). The wheel thread only does the bookkeeping,
+ * the expired commands run on the executor and are late by up to one tick.
+ * New and canceled timers are handed to the wheel thread through lock-free queues,
+ * only the wheel thread touches the buckets
+ */
+public class TimingWheel implements Runnable {
+	private final Executor executor;
+	private final long tickDuration;
+	private final WheelTimer[] buckets;
+	private final int mask;
+	private final Queue<WheelTimer> added = new ConcurrentLinkedQueue<WheelTimer>();
+	private final Queue<WheelTimer> canceled = new ConcurrentLinkedQueue<WheelTimer>();
+	private final long startTime = System.nanoTime();
+	private long tick = 0;
+	
+	public TimingWheel(final long tickDuration, final TimeUnit unit, final int wheelSize, final Executor executor) {
+		if (tickDuration <= 0 || wheelSize <= 0) {
+			throw new IllegalArgumentException("The tick duration and the wheel size must be positive");
+		}
+		
+		this.executor = executor;
+		this.tickDuration = unit.toNanos(tickDuration);
+		// Power of two, so the bucket is found with a mask
+		this.buckets = new WheelTimer[wheelSize > 1 ? Integer.highestOneBit(wheelSize - 1) << 1 : 1];
+		this.mask = buckets.length - 1;
+		
+		final Thread thread = Runner.THREAD_FACTORY.newThread(this);
+		thread.setName("woody-timer");
+		thread.start();
+	}
+	
+	public Timer schedule(final long delay, final long period, final TimeUnit unit, final Runnable command) {
+		final long elapsed = System.nanoTime() - startTime;
+		final long delayNanos = unit.toNanos(Math.max(delay, 0L));
+		// Saturated, huge delays never expire
+		final long deadline = delayNanos < Long.MAX_VALUE - tickDuration - elapsed ? elapsed + delayNanos : Long.MAX_VALUE - tickDuration;
+		final WheelTimer timer = new WheelTimer(this, deadline, unit.toNanos(period), command);
+		added.offer(timer);
+		return timer;
+	}
+	
+	public void run() {
+		while (true) {
+			final long deadline = waitForNextTick();
+			
+			removeCanceled();
+			transferAdded();
+			expire(buckets[(int) (tick & mask)], deadline);
+			tick++;
+		}
+	}
+	
+	private long waitForNextTick() {
+		final long deadline = tickDuration * (tick + 1);
+		
+		while (true) {
+			final long remaining = deadline - (System.nanoTime() - startTime);
+			
+			if (remaining <= 0) {
+				return deadline;
+			}
+			
+			LockSupport.parkNanos(this, remaining);
+		}
+	}
+	
+	private void removeCanceled() {
+		WheelTimer timer = null;
+		
+		while ((timer = canceled.poll()) != null) {
+			unlink(timer);
+		}
+	}
+	
+	private void transferAdded() {
+		WheelTimer timer = null;
+		
+		while ((timer = added.poll()) != null) {
+			if (timer.state == WheelTimer.CANCELED) {
+				continue;
+			}
+			
+			// Timers already late go to the current bucket
+			final long ticks = Math.max(timer.deadline / tickDuration, tick);
+			timer.rounds = (ticks - tick) / buckets.length;
+			link(timer, (int) (ticks & mask));
+		}
+	}
+	
+	private void expire(final WheelTimer head, final long deadline) {
+		WheelTimer timer = head;
+		
+		while (timer != null) {
+			final WheelTimer next = timer.next;
+			
+			if (timer.rounds <= 0 && timer.deadline <= deadline) {
+				unlink(timer);
+				
+				if (timer.expire()) {
+					executor.execute(timer);
+				}
+			} else {
+				timer.rounds--;
+			}
+			
+			timer = next;
+		}
+	}
+	
+	private void link(final WheelTimer timer, final int bucket) {
+		final WheelTimer head = buckets[bucket];
+		
+		timer.bucket = bucket;
+		timer.prev = null;
+		timer.next = head;
+		
+		if (head != null) {
+			head.prev = timer;
+		}
+		
+		buckets[bucket] = timer;
+	}
+	
+	private void unlink(final WheelTimer timer) {
+		if (timer.bucket < 0) {
+			return;
+		}
+		
+		if (timer.prev != null) {
+			timer.prev.next = timer.next;
+		} else {
+			buckets[timer.bucket] = timer.next;
+		}
+		
+		if (timer.next != null) {
+			timer.next.prev = timer.prev;
+		}
+		
+		timer.bucket = -1;
+		timer.prev = null;
+		timer.next = null;
+	}
+	
+	private static class WheelTimer implements Timer, Runnable {
+		private static final int SCHEDULED = 0;
+		private static final int FIRED = 1;
+		private static final int CANCELED = 2;
+		private static final AtomicIntegerFieldUpdater<WheelTimer> STATE = AtomicIntegerFieldUpdater.newUpdater(WheelTimer.class, "state");
+		
+		private final TimingWheel wheel;
+		private final long period;
+		private final Runnable command;
+		private volatile int state = SCHEDULED;
+		
+		// Only used by the wheel thread, and by the executor while a periodic timer runs
+		private long deadline = 0L;
+		private long rounds = 0L;
+		private int bucket = -1;
+		private WheelTimer prev = null;
+		private WheelTimer next = null;
+		
+		public WheelTimer(final TimingWheel wheel, final long deadline, final long period, final Runnable command) {
+			this.wheel = wheel;
+			this.deadline = deadline;
+			this.period = period;
+			this.command = command;
+		}
+		
+		// Periodic timers stay scheduled until canceled
+		public boolean expire() {
+			return period > 0 ? state == SCHEDULED : STATE.compareAndSet(this, SCHEDULED, FIRED);
+		}
+		
+		public void run() {
+			try {
+				command.run();
+			} catch (final Throwable e) {
+				final Thread thread = Thread.currentThread();
+				thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+			}
+			
+			if (period > 0 && state != CANCELED) {
+				// Fixed rate, rescheduled once the command ends so the runs never overlap, a late timer runs on the next tick
+				deadline += period;
+				wheel.added.offer(this);
+			}
+		}
+
+		@Override
+		public boolean cancel() {
+			if (STATE.compareAndSet(this, SCHEDULED, CANCELED)) {
+				wheel.canceled.offer(this);
+				return true;
+			}
+			
+			return false;
+		}
+
+		@Override
+		public boolean isCancelled() {
+			return state == CANCELED;
+		}
+	}
+}
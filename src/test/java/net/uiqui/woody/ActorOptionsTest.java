@@ -0,0 +1,137 @@
+/*
+ * Woody - Basic Actor model implementation
+ * 
+ * Copyright (C) 2017 Joaquim Rocha <jrocha@gmailbox.org>
+ * 
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package net.uiqui.woody;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import net.uiqui.woody.annotations.Affinity;
+import net.uiqui.woody.annotations.Async;
+import net.uiqui.woody.annotations.Mailbox;
+import net.uiqui.woody.api.OverflowPolicy;
+import net.uiqui.woody.api.Routing;
+import net.uiqui.woody.api.error.MailboxFullException;
+import net.uiqui.woody.lib.Dispatcher;
+import net.uiqui.woody.lib.WaitStrategy;
+
+public class ActorOptionsTest {
+	private static volatile CountDownLatch started = null;
+	private static volatile CountDownLatch gate = null;
+	
+	@Test
+	public void explicitOptionsKeepTheMailboxAnnotation() {
+		final ActorOptions options = ActorOptions.of(Bounded.class, new ActorOptions().routing(Routing.LEAST_DEPTH));
+		
+		assertEquals(2, options.getCapacity());
+		assertEquals(OverflowPolicy.FAIL, options.getOverflow());
+		assertEquals(Routing.LEAST_DEPTH, options.getRouting());
+	}
+	
+	@Test
+	public void explicitOptionsOverrideTheMailboxAnnotation() {
+		final ActorOptions requested = new ActorOptions().capacity(0);
+		final ActorOptions options = ActorOptions.of(Bounded.class, requested.overflow(OverflowPolicy.DROP_OLDEST));
+		
+		assertFalse(options.isBounded());
+		assertEquals(OverflowPolicy.DROP_OLDEST, options.getOverflow());
+	}
+	
+	@Test(timeout = 10000)
+	public void actorsKeepTheMailboxAnnotation() throws InterruptedException {
+		final Bounded actor = Woody.newActor(Bounded.class, new ActorOptions().callTimeout(5000));
+		started = new CountDownLatch(1);
+		gate = new CountDownLatch(1);
+		
+		try {
+			actor.block();
+			assertTrue(started.await(5, TimeUnit.SECONDS));
+			actor.add();
+			actor.add();
+			
+			try {
+				actor.add();
+				fail("The annotated mailbox isn't bounded");
+			} catch (final MailboxFullException e) {
+			}
+		} finally {
+			gate.countDown();
+		}
+	}
+	
+	@Test(expected = IllegalArgumentException.class)
+	public void lightActorsCantBeBounded() {
+		Woody.newLightActor(Bounded.class);
+	}
+	
+	@Test
+	public void explicitOptionsKeepTheAffinityAnnotation() {
+		final ActorOptions options = ActorOptions.of(Pinned.class, new ActorOptions().callTimeout(1000));
+		
+		assertTrue(options.isPinned());
+		assertEquals(WaitStrategy.YIELD, options.getWaitStrategy());
+	}
+	
+	@Test
+	public void explicitDispatchersOverrideTheAffinityAnnotation() {
+		final ActorOptions options = ActorOptions.of(Pinned.class, new ActorOptions().dispatcher(Dispatcher.getDefault()));
+		
+		assertFalse(options.isPinned());
+	}
+	
+	@Test(expected = IllegalArgumentException.class)
+	public void annotatedPoolsCantBePinned() {
+		Woody.newActor(Pinned.class, 2, new ActorOptions().routing(Routing.LEAST_DEPTH));
+	}
+	
+	@Test(expected = IllegalArgumentException.class)
+	public void annotatedVirtualActorsCantBePinned() {
+		Woody.newVirtualActors("options-pinned/", Pinned.class, new ActorOptions().idleTimeout(1000));
+	}
+	
+	@Mailbox(capacity = 2, overflow = OverflowPolicy.FAIL)
+	public static class Bounded {
+		@Async
+		public void block() {
+			started.countDown();
+			
+			try {
+				gate.await(10, TimeUnit.SECONDS);
+			} catch (final InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		
+		@Async
+		public void add() {
+		}
+	}
+	
+	@Affinity(pinned = true, waitStrategy = WaitStrategy.YIELD)
+	public static class Pinned {
+		@Async
+		public void run() {
+		}
+	}
+}
@@ -0,0 +1,131 @@
+/*
+ * Woody - Basic Actor model implementation
+ * 
+ * Copyright (C) 2017 Joaquim Rocha <jrocha@gmailbox.org>
+ * 
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package net.uiqui.woody;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import net.uiqui.woody.annotations.Async;
+
+/*
+ * The actor is kept busy by a blocked message, so any sender waiting for it would block too
+ */
+public class CastTest {
+	private static volatile CountDownLatch gate = null;
+	
+	private Busy actor = null;
+	
+	@Before
+	public void setUp() {
+		gate = new CountDownLatch(1);
+		actor = Woody.newActor(Busy.class);
+		actor.block();
+	}
+	
+	@After
+	public void tearDown() {
+		gate.countDown();
+	}
+
+	@Test(timeout = 10000)
+	public void voidMethodsNeverBlockTheSender() throws InterruptedException {
+		final long start = System.nanoTime();
+		
+		for (int i = 0; i < 1000; i++) {
+			actor.add(1);
+		}
+		
+		final long elapsed = System.nanoTime() - start;
+		assertTrue("The casts waited for the actor", elapsed < TimeUnit.SECONDS.toNanos(1));
+		
+		gate.countDown();
+		assertEquals(1000, actor.get());
+	}
+	
+	@Test(timeout = 10000)
+	public void voidObjectMethodsNeverBlockTheSender() {
+		assertNull(actor.addAndReturnVoid(5));
+		
+		gate.countDown();
+		assertEquals(5, actor.get());
+	}
+	
+	@Test(timeout = 10000)
+	public void onewayMethodsReturnNullWithoutWaiting() {
+		assertNull(actor.oneway(3));
+		
+		gate.countDown();
+		assertEquals(3, actor.get());
+	}
+	
+	@Test(timeout = 10000)
+	public void castErrorsDontReachTheSender() {
+		actor.fail();
+		
+		gate.countDown();
+		assertEquals(0, actor.get());
+	}
+	
+	public static class Busy {
+		private int total = 0;
+		
+		@Async
+		public void block() {
+			try {
+				gate.await(10, TimeUnit.SECONDS);
+			} catch (final InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		
+		@Async
+		public void add(final int value) {
+			total += value;
+		}
+		
+		@Async
+		public Void addAndReturnVoid(final int value) {
+			total += value;
+			return null;
+		}
+		
+		@Async(oneway = true)
+		public String oneway(final int value) {
+			total += value;
+			return "ignored";
+		}
+		
+		@Async
+		public void fail() {
+			throw new IllegalStateException("Expected");
+		}
+		
+		@Async
+		public int get() {
+			return total;
+		}
+	}
+}
@@ -0,0 +1,235 @@
+/*
+ * Woody - Basic Actor model implementation
+ * 
+ * Copyright (C) 2017 Joaquim Rocha <jrocha@gmailbox.org>
+ * 
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package net.uiqui.woody;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import net.uiqui.woody.annotations.Async;
+import net.uiqui.woody.annotations.Self;
+import net.uiqui.woody.api.OverflowPolicy;
+import net.uiqui.woody.api.error.MailboxFullException;
+
+/*
+ * The actor is kept busy by a blocked message, so its mailbox (with capacity for 2 messages) fills up
+ */
+public class OverflowTest {
+	private static final AtomicInteger SEQUENCE = new AtomicInteger();
+	
+	private static volatile CountDownLatch started = null;
+	private static volatile CountDownLatch gate = null;
+	
+	@Before
+	public void setUp() {
+		started = new CountDownLatch(1);
+		gate = new CountDownLatch(1);
+	}
+	
+	@After
+	public void tearDown() {
+		gate.countDown();
+	}
+	
+	@Test(timeout = 10000)
+	public void dropNewestDiscardsTheNewMessage() throws InterruptedException {
+		final Bounded actor = newFullActor(OverflowPolicy.DROP_NEWEST);
+		
+		actor.add(4);
+		
+		gate.countDown();
+		assertEquals(3, total(actor));
+	}
+	
+	@Test(timeout = 10000)
+	public void dropOldestDiscardsTheOldestMessage() throws InterruptedException {
+		final Bounded actor = newFullActor(OverflowPolicy.DROP_OLDEST);
+		
+		actor.add(4);
+		
+		gate.countDown();
+		assertEquals(6, total(actor));
+	}
+	
+	@Test(timeout = 10000)
+	public void failThrowsOnTheSender() throws InterruptedException {
+		final Bounded actor = newFullActor(OverflowPolicy.FAIL);
+		
+		try {
+			actor.add(4);
+			fail("The cast was accepted by a full mailbox");
+		} catch (final MailboxFullException e) {
+		}
+		
+		gate.countDown();
+		assertEquals(3, total(actor));
+	}
+	
+	@Test(timeout = 10000)
+	public void failOnBatchKeepsTheAcceptedMessages() throws InterruptedException {
+		final Bounded actor = newActor(OverflowPolicy.FAIL);
+		
+		try {
+			Woody.batch(new Runnable() {
+				public void run() {
+					actor.add(1);
+					actor.add(2);
+					actor.add(4);
+					actor.add(8);
+				}
+			});
+			
+			fail("The batch was accepted by a full mailbox");
+		} catch (final MailboxFullException e) {
+		}
+		
+		gate.countDown();
+		assertEquals(3, total(actor));
+	}
+	
+	@Test(timeout = 10000)
+	public void blockWaitsForSpace() throws InterruptedException {
+		final Bounded actor = newFullActor(OverflowPolicy.BLOCK);
+		final CountDownLatch sent = new CountDownLatch(1);
+		
+		final Thread sender = new Thread(new Runnable() {
+			public void run() {
+				actor.add(4);
+				sent.countDown();
+			}
+		});
+		
+		sender.start();
+		assertFalse("The sender didn't wait for space", sent.await(200, TimeUnit.MILLISECONDS));
+		
+		gate.countDown();
+		assertTrue(sent.await(5, TimeUnit.SECONDS));
+		assertEquals(7, total(actor));
+	}
+	
+	@Test(timeout = 10000)
+	public void blockFailsWhenTheActorSendsToItself() {
+		final String name = "overflow-self-" + SEQUENCE.incrementAndGet();
+		final Bounded actor = Woody.newActor(name, Bounded.class, options(OverflowPolicy.BLOCK));
+		
+		assertEquals(2, actor.fillItself(3));
+		assertEquals(2, total(actor));
+	}
+	
+	@Test(timeout = 10000)
+	public void tryCastDoesntWaitForSpace() throws InterruptedException {
+		final Bounded actor = newFullActor(OverflowPolicy.BLOCK);
+		
+		assertFalse(Woody.tryCast(new Runnable() {
+			public void run() {
+				actor.add(4);
+			}
+		}));
+		
+		gate.countDown();
+		assertEquals(3, total(actor));
+	}
+	
+	private static ActorOptions options(final OverflowPolicy overflow) {
+		return ActorOptions.of(Bounded.class).capacity(2).overflow(overflow);
+	}
+	
+	private static Bounded newActor(final OverflowPolicy overflow) throws InterruptedException {
+		final String name = "overflow-" + SEQUENCE.incrementAndGet();
+		final Bounded actor = Woody.newActor(name, Bounded.class, options(overflow));
+		
+		actor.block();
+		assertTrue(started.await(5, TimeUnit.SECONDS));
+		
+		return actor;
+	}
+	
+	private static Bounded newFullActor(final OverflowPolicy overflow) throws InterruptedException {
+		final Bounded actor = newActor(overflow);
+		actor.add(1);
+		actor.add(2);
+		return actor;
+	}
+	
+	// The mailbox may still be full when the gate opens, tryCast never drops a queued message
+	private static int total(final Bounded actor) {
+		final int[] total = new int[1];
+		
+		while (!Woody.tryCast(new Runnable() {
+			public void run() {
+				total[0] = actor.get();
+			}
+		})) {
+			Thread.yield();
+		}
+		
+		return total[0];
+	}
+	
+	public static class Bounded {
+		@Self
+		private String name = null;
+		private int total = 0;
+		
+		@Async
+		public void block() {
+			started.countDown();
+			
+			try {
+				gate.await(10, TimeUnit.SECONDS);
+			} catch (final InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		
+		@Async
+		public void add(final int value) {
+			total += value;
+		}
+		
+		// Casts to itself until the mailbox is full, returns the number of accepted casts
+		@Async
+		public int fillItself(final int count) {
+			final Bounded self = Woody.findActor(name);
+			
+			for (int i = 0; i < count; i++) {
+				try {
+					self.add(1);
+				} catch (final MailboxFullException e) {
+					return i;
+				}
+			}
+			
+			return count;
+		}
+		
+		@Async
+		public int get() {
+			return total;
+		}
+	}
+}
@@ -0,0 +1,86 @@
+/*
+ * Woody - Basic Actor model implementation
+ * 
+ * Copyright (C) 2017 Joaquim Rocha <jrocha@gmailbox.org>
+ * 
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package net.uiqui.woody;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.junit.Test;
+
+import net.uiqui.woody.annotations.Async;
+import net.uiqui.woody.lib.Timer;
+
+public class TimersTest {
+	private static volatile CountDownLatch ticks = null;
+	
+	@Test(timeout = 10000)
+	public void castAfterDeliversOnce() throws InterruptedException {
+		final Ticker actor = Woody.newActor(Ticker.class);
+		ticks = new CountDownLatch(1);
+		
+		Woody.castAfter(50, actor, new Consumer<Ticker>() {
+			public void accept(final Ticker ticker) {
+				ticker.tick();
+			}
+		});
+		
+		assertTrue(ticks.await(5, TimeUnit.SECONDS));
+		Thread.sleep(200);
+		assertEquals(1, actor.count());
+	}
+	
+	@Test(timeout = 10000)
+	public void castIntervalStopsWhenCanceled() throws InterruptedException {
+		final Ticker actor = Woody.newActor(Ticker.class);
+		ticks = new CountDownLatch(3);
+		
+		final Timer timer = Woody.castInterval(20, actor, new Consumer<Ticker>() {
+			public void accept(final Ticker ticker) {
+				ticker.tick();
+			}
+		});
+		
+		assertTrue(ticks.await(5, TimeUnit.SECONDS));
+		assertTrue(timer.cancel());
+		
+		// A delivery may already be on the mailbox
+		Thread.sleep(100);
+		final int count = actor.count();
+		Thread.sleep(200);
+		assertEquals(count, actor.count());
+	}
+	
+	public static class Ticker {
+		private int count = 0;
+		
+		@Async
+		public void tick() {
+			count++;
+			ticks.countDown();
+		}
+		
+		@Async
+		public int count() {
+			return count;
+		}
+	}
+}
@@ -0,0 +1,47 @@
+/*
+ * Woody - Basic Actor model implementation
+ * 
+ * Copyright (C) 2017 Joaquim Rocha <jrocha@gmailbox.org>
+ * 
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package net.uiqui.woody.api;
+
+import org.junit.Test;
+
+import net.uiqui.woody.ActorOptions;
+import net.uiqui.woody.annotations.Async;
+import net.uiqui.woody.lib.WaitStrategy;
+
+public class ActorFactoryTest {
+	@Test(expected = IllegalArgumentException.class)
+	public void partitionedPoolsCantBeElastic() {
+		ActorFactory.newActor(null, Storage.class, 2, new ActorOptions().routing(Routing.KEY).elastic(4));
+	}
+	
+	@Test(expected = IllegalArgumentException.class)
+	public void consistentHashPoolsCantBeElastic() {
+		ActorFactory.newActor(null, Storage.class, 2, new ActorOptions().routing(Routing.CONSISTENT_HASH).elastic(4));
+	}
+	
+	@Test(expected = IllegalArgumentException.class)
+	public void poolsCantBePinned() {
+		ActorFactory.newActor(null, Storage.class, 2, new ActorOptions().pinned(WaitStrategy.PARK));
+	}
+	
+	public static class Storage {
+		@Async
+		public void put(final String key, final Object value) {
+		}
+	}
+}
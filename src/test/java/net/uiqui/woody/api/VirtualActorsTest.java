@@ -0,0 +1,332 @@
+/*
+ * Woody - Basic Actor model implementation
+ * 
+ * Copyright (C) 2017 Joaquim Rocha <jrocha@gmailbox.org>
+ * 
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package net.uiqui.woody.api;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import net.uiqui.woody.ActorOptions;
+import net.uiqui.woody.Woody;
+import net.uiqui.woody.annotations.Activate;
+import net.uiqui.woody.annotations.Async;
+import net.uiqui.woody.annotations.Passivate;
+import net.uiqui.woody.api.store.FileStateStore;
+import net.uiqui.woody.api.store.MemoryStateStore;
+import net.uiqui.woody.api.store.StateStore;
+import net.uiqui.woody.lib.WaitStrategy;
+
+/*
+ * The kinds are never unregistered, so each test uses its own prefix. The idle timeout
+ * is long enough to keep the background sweeps from passivating the instances
+ */
+public class VirtualActorsTest {
+	private static final AtomicInteger SEQUENCE = new AtomicInteger();
+	
+	private static final AtomicInteger ACTIVATIONS = new AtomicInteger();
+	
+	private static volatile CountDownLatch gate = new CountDownLatch(0);
+	
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+	
+	private String prefix = null;
+	
+	@After
+	public void tearDown() {
+		gate.countDown();
+	}
+	
+	@Test
+	public void referencesDontActivate() {
+		final VirtualActors<Account> accounts = newAccounts(new MemoryStateStore());
+		
+		accounts.get("1");
+		assertEquals(0, accounts.getActiveCount());
+	}
+	
+	@Test(timeout = 10000)
+	public void activationRestoresTheState() {
+		final StateStore store = new MemoryStateStore();
+		final VirtualActors<Account> accounts = newAccounts(store);
+		store.save(name("1"), 5);
+		
+		assertEquals(5, accounts.get("1").balance());
+		assertEquals(1, accounts.getActiveCount());
+	}
+	
+	@Test(timeout = 10000)
+	public void passivationSavesTheState() {
+		final StateStore store = new MemoryStateStore();
+		final VirtualActors<Account> accounts = newAccounts(store);
+		
+		accounts.get("1").deposit(10);
+		assertEquals(10, accounts.get("1").balance());
+		
+		passivateAll(accounts);
+		assertEquals(10, store.load(name("1")));
+		
+		assertEquals(10, accounts.get("1").balance());
+	}
+	
+	@Test(timeout = 10000)
+	public void nullStatesAreRemoved() {
+		final StateStore store = new MemoryStateStore();
+		final VirtualActors<Account> accounts = newAccounts(store);
+		store.save(name("1"), 5);
+		
+		accounts.get("1").deposit(-5);
+		assertEquals(0, accounts.get("1").balance());
+		
+		passivateAll(accounts);
+		assertNull(store.load(name("1")));
+	}
+	
+	@Test(timeout = 10000)
+	public void fileStoreKeepsTheState() throws Exception {
+		final VirtualActors<Account> accounts = newAccounts(new FileStateStore(folder.newFolder()));
+		
+		accounts.get("x/y").deposit(7);
+		assertEquals(7, accounts.get("x/y").balance());
+		
+		passivateAll(accounts);
+		assertEquals(7, accounts.get("x/y").balance());
+	}
+	
+	@Test(timeout = 10000)
+	public void namesAreFoundByPrefix() {
+		final VirtualActors<Account> accounts = newAccounts(new MemoryStateStore());
+		
+		final Account account = Woody.findActor(name("1"));
+		account.deposit(3);
+		assertEquals(3, accounts.get("1").balance());
+	}
+	
+	@Test(expected = IllegalArgumentException.class)
+	public void overlappingPrefixesAreRejected() {
+		final VirtualActors<Account> accounts = newAccounts(new MemoryStateStore());
+		Woody.newVirtualActors(name("sub/"), Account.class);
+	}
+	
+	@Test(expected = IllegalArgumentException.class)
+	public void pinnedActorsAreRejected() {
+		Woody.newVirtualActors("virtual-pinned/", Account.class, ActorOptions.of(Account.class).pinned(WaitStrategy.PARK));
+	}
+	
+	/*
+	 * The senders race with the passivations (and the reopens of the busy instances),
+	 * no message can be lost and no sender can be left waiting
+	 */
+	@Test(timeout = 60000)
+	public void passivationsDontLoseMessages() throws InterruptedException {
+		final VirtualActors<Account> accounts = newAccounts(new MemoryStateStore());
+		final int senders = 4;
+		final int messages = 5000;
+		final int ids = 20;
+		final AtomicBoolean sending = new AtomicBoolean(true);
+		final List<Thread> threads = new ArrayList<Thread>();
+		
+		for (int s = 0; s < senders; s++) {
+			threads.add(new Thread(new Runnable() {
+				public void run() {
+					for (int i = 0; i < messages; i++) {
+						accounts.get(String.valueOf(i % ids)).deposit(1);
+					}
+				}
+			}));
+		}
+		
+		final Thread passivator = new Thread(new Runnable() {
+			public void run() {
+				while (sending.get()) {
+					accounts.passivateAll();
+					Thread.yield();
+				}
+			}
+		});
+		
+		passivator.start();
+		
+		for (final Thread thread : threads) {
+			thread.start();
+		}
+		
+		for (final Thread thread : threads) {
+			thread.join();
+		}
+		
+		sending.set(false);
+		passivator.join();
+		
+		int total = 0;
+		
+		for (int i = 0; i < ids; i++) {
+			total += accounts.get(String.valueOf(i)).balance();
+		}
+		
+		assertEquals(senders * messages, total);
+	}
+	
+	@Test(timeout = 10000)
+	public void batchedCastsReachTheMailboxBeforePassivation() {
+		final StateStore store = new MemoryStateStore();
+		final VirtualActors<Account> accounts = newAccounts(store);
+		
+		Woody.batch(new Runnable() {
+			public void run() {
+				accounts.get("1").deposit(5);
+				// The instance isn't idle, the cast is on its mailbox
+				accounts.passivateAll();
+			}
+		});
+		
+		passivateAll(accounts);
+		assertEquals(5, store.load(name("1")));
+	}
+	
+	@Test(timeout = 10000)
+	public void maxActivePassivatesTheLeastRecentlyUsed() {
+		final VirtualActors<Account> accounts = newAccounts(new MemoryStateStore(), 5);
+		
+		for (int i = 0; i < 20; i++) {
+			accounts.get(String.valueOf(i)).deposit(i);
+			assertEquals(i, accounts.get(String.valueOf(i)).balance());
+		}
+		
+		sweep(accounts, 5);
+		
+		int total = 0;
+		
+		for (int i = 0; i < 20; i++) {
+			total += accounts.get(String.valueOf(i)).balance();
+		}
+		
+		assertEquals(190, total);
+	}
+	
+	@Test(timeout = 10000)
+	public void maxActiveKeepsTheBusyInstances() throws InterruptedException {
+		final VirtualActors<Account> accounts = newAccounts(new MemoryStateStore(), 1);
+		final CountDownLatch started = new CountDownLatch(1);
+		gate = new CountDownLatch(1);
+		
+		final Account busy = accounts.get("busy");
+		busy.deposit(1);
+		busy.block(started);
+		assertTrue(started.await(5, TimeUnit.SECONDS));
+		
+		accounts.get("idle").deposit(1);
+		assertEquals(1, accounts.get("idle").balance());
+		
+		// The busy instance is the least recently used, but is kept
+		sweep(accounts, 1);
+		final int activations = ACTIVATIONS.get();
+		
+		gate.countDown();
+		assertEquals(1, busy.balance());
+		assertEquals(activations, ACTIVATIONS.get());
+		assertEquals(1, accounts.get("idle").balance());
+	}
+	
+	// An instance is busy until its mailbox ends the run that sent the last reply
+	private static void passivateAll(final VirtualActors<Account> accounts) {
+		while (accounts.getActiveCount() > 0) {
+			accounts.passivateAll();
+			Thread.yield();
+		}
+	}
+	
+	private static void sweep(final VirtualActors<Account> accounts, final int active) {
+		while (accounts.getActiveCount() > active) {
+			accounts.sweep();
+			Thread.yield();
+		}
+		
+		assertEquals(active, accounts.getActiveCount());
+	}
+	
+	private VirtualActors<Account> newAccounts(final StateStore store) {
+		return newAccounts(store, 0);
+	}
+	
+	private VirtualActors<Account> newAccounts(final StateStore store, final int maxActive) {
+		prefix = "virtual-" + SEQUENCE.incrementAndGet() + "/";
+		final ActorOptions options = ActorOptions.of(Account.class).idleTimeout(60000).stateStore(store);
+		
+		if (maxActive > 0) {
+			options.maxActive(maxActive);
+		}
+		
+		return Woody.newVirtualActors(prefix, Account.class, options);
+	}
+	
+	private String name(final String id) {
+		return prefix + id;
+	}
+	
+	public static class Account {
+		private int balance = 0;
+		
+		@Activate
+		public void activate(final Object state) {
+			ACTIVATIONS.incrementAndGet();
+			
+			if (state != null) {
+				balance = (Integer) state;
+			}
+		}
+		
+		@Passivate
+		public Object passivate() {
+			return balance != 0 ? balance : null;
+		}
+		
+		@Async
+		public void deposit(final int value) {
+			balance += value;
+		}
+		
+		@Async
+		public void block(final CountDownLatch started) {
+			started.countDown();
+			
+			try {
+				gate.await(10, TimeUnit.SECONDS);
+			} catch (final InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		
+		@Async
+		public int balance() {
+			return balance;
+		}
+	}
+}
@@ -0,0 +1,110 @@
+/*
+ * Woody - Basic Actor model implementation
+ * 
+ * Copyright (C) 2017 Joaquim Rocha <jrocha@gmailbox.org>
+ * 
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package net.uiqui.woody.api.invoke;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+import net.uiqui.woody.annotations.Async;
+import net.uiqui.woody.api.error.InvalidActorException;
+
+public class CallTypeTest {
+	@Test
+	public void voidIsCast() throws Exception {
+		assertEquals(CallType.CAST, callTypeOf("voidMethod"));
+		assertEquals(CallType.CAST, callTypeOf("voidObjectMethod"));
+	}
+	
+	@Test
+	public void valueIsCall() throws Exception {
+		assertEquals(CallType.CALL, callTypeOf("intMethod"));
+		assertEquals(CallType.CALL, callTypeOf("stringMethod"));
+	}
+	
+	@Test
+	public void futuresAreDeferred() throws Exception {
+		assertEquals(CallType.FUTURE, callTypeOf("futureMethod"));
+		assertEquals(CallType.STAGE, callTypeOf("stageMethod"));
+		assertEquals(CallType.STAGE, callTypeOf("completableMethod"));
+	}
+	
+	@Test
+	public void onewayOverridesTheReturnType() throws Exception {
+		assertEquals(CallType.CAST, callTypeOf("onewayMethod"));
+	}
+	
+	@Test(expected = InvalidActorException.class)
+	public void onewayCantReturnPrimitives() throws Exception {
+		callTypeOf("onewayIntMethod");
+	}
+	
+	private static CallType callTypeOf(final String name) throws NoSuchMethodException {
+		return CallType.of(Methods.class.getMethod(name));
+	}
+	
+	public static class Methods {
+		@Async
+		public void voidMethod() {
+		}
+		
+		@Async
+		public Void voidObjectMethod() {
+			return null;
+		}
+		
+		@Async
+		public int intMethod() {
+			return 0;
+		}
+		
+		@Async
+		public String stringMethod() {
+			return null;
+		}
+		
+		@Async
+		public Future<String> futureMethod() {
+			return null;
+		}
+		
+		@Async
+		public CompletionStage<String> stageMethod() {
+			return null;
+		}
+		
+		@Async
+		public CompletableFuture<String> completableMethod() {
+			return null;
+		}
+		
+		@Async(oneway = true)
+		public String onewayMethod() {
+			return null;
+		}
+		
+		@Async(oneway = true)
+		public int onewayIntMethod() {
+			return 0;
+		}
+	}
+}
@@ -0,0 +1,48 @@
+/*
+ * Woody - Basic Actor model implementation
+ * 
+ * Copyright (C) 2017 Joaquim Rocha <jrocha@gmailbox.org>
+ * 
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package net.uiqui.woody.api.queue;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class BlockingMessageQueueTest {
+	@Test
+	public void boundedQueueRejectsWhenFull() {
+		final BlockingMessageQueue queue = new BlockingMessageQueue(2);
+		
+		assertTrue(queue.offer(1));
+		assertTrue(queue.offer(2));
+		assertFalse(queue.offer(3));
+		assertEquals(2, queue.size());
+	}
+	
+	@Test
+	public void offerAllAcceptsAPrefix() {
+		final BlockingMessageQueue queue = new BlockingMessageQueue(2);
+		
+		assertEquals(2, queue.offerAll(Arrays.<Object>asList(1, 2, 3)));
+		assertEquals(1, queue.poll());
+		assertEquals(2, queue.poll());
+		assertTrue(queue.isEmpty());
+	}
+}
@@ -0,0 +1,146 @@
+/*
+ * Woody - Basic Actor model implementation
+ * 
+ * Copyright (C) 2017 Joaquim Rocha <jrocha@gmailbox.org>
+ * 
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package net.uiqui.woody.api.queue;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import org.junit.Test;
+
+public class MpmcArrayQueueTest {
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsInvalidCapacities() {
+		new MpmcArrayQueue(0);
+	}
+	
+	@Test
+	public void rejectsWhenFull() {
+		final MpmcArrayQueue queue = new MpmcArrayQueue(3);
+		
+		assertTrue(queue.offer(1));
+		assertTrue(queue.offer(2));
+		assertTrue(queue.offer(3));
+		assertFalse(queue.offer(4));
+		assertEquals(3, queue.size());
+		
+		assertEquals(1, queue.poll());
+		assertTrue(queue.offer(4));
+		assertFalse(queue.offer(5));
+	}
+	
+	@Test
+	public void keepsTheOrderAcrossManyLaps() {
+		final MpmcArrayQueue queue = new MpmcArrayQueue(3);
+		
+		for (int i = 0; i < 100; i++) {
+			assertTrue(queue.offer(i));
+			assertTrue(queue.offer(-i));
+			assertEquals(i, queue.poll());
+			assertEquals(-i, queue.poll());
+			assertTrue(queue.isEmpty());
+			assertNull(queue.poll());
+		}
+	}
+	
+	@Test
+	public void offerAllAcceptsAPrefix() {
+		final MpmcArrayQueue queue = new MpmcArrayQueue(2);
+		
+		assertEquals(2, queue.offerAll(Arrays.<Object>asList("a", "b", "c")));
+		assertEquals("a", queue.poll());
+		assertEquals("b", queue.poll());
+		assertNull(queue.poll());
+	}
+	
+	/*
+	 * The producers drop the oldest message when the queue is full (as the DROP_OLDEST policy),
+	 * every message must be taken exactly once, by the consumer or by a producer
+	 */
+	@Test(timeout = 30000)
+	public void everyMessageIsTakenOnce() throws InterruptedException {
+		final MpmcArrayQueue queue = new MpmcArrayQueue(16);
+		final int producers = 4;
+		final int messages = 50000;
+		final AtomicIntegerArray taken = new AtomicIntegerArray(producers * messages);
+		final List<Thread> threads = new ArrayList<Thread>();
+		
+		for (int p = 0; p < producers; p++) {
+			final int producer = p;
+			
+			threads.add(new Thread(new Runnable() {
+				public void run() {
+					for (int i = 0; i < messages; i++) {
+						final Integer msg = producer * messages + i;
+						
+						while (!queue.offer(msg)) {
+							final Integer oldest = (Integer) queue.poll();
+							
+							if (oldest != null) {
+								taken.incrementAndGet(oldest);
+							}
+						}
+					}
+				}
+			}));
+		}
+		
+		final Thread consumer = new Thread(new Runnable() {
+			public void run() {
+				while (!Thread.currentThread().isInterrupted()) {
+					final Integer msg = (Integer) queue.poll();
+					
+					if (msg == null) {
+						Thread.yield();
+					} else {
+						taken.incrementAndGet(msg);
+					}
+				}
+			}
+		});
+		
+		consumer.start();
+		
+		for (final Thread thread : threads) {
+			thread.start();
+		}
+		
+		for (final Thread thread : threads) {
+			thread.join();
+		}
+		
+		consumer.interrupt();
+		consumer.join();
+		
+		Object msg = null;
+		
+		while ((msg = queue.poll()) != null) {
+			taken.incrementAndGet((Integer) msg);
+		}
+		
+		for (int i = 0; i < taken.length(); i++) {
+			assertEquals("Message " + i, 1, taken.get(i));
+		}
+	}
+}
@@ -0,0 +1,119 @@
+/*
+ * Woody - Basic Actor model implementation
+ * 
+ * Copyright (C) 2017 Joaquim Rocha <jrocha@gmailbox.org>
+ * 
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package net.uiqui.woody.api.queue;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+public class MpscLinkedQueueTest {
+	@Test
+	public void pollsOnTheOfferOrder() {
+		final MpscLinkedQueue queue = new MpscLinkedQueue();
+		assertTrue(queue.isEmpty());
+		assertNull(queue.poll());
+		
+		for (int i = 0; i < 10; i++) {
+			assertTrue(queue.offer(i));
+		}
+		
+		assertEquals(10, queue.size());
+		assertFalse(queue.isEmpty());
+		
+		for (int i = 0; i < 10; i++) {
+			assertEquals(i, queue.poll());
+		}
+		
+		assertTrue(queue.isEmpty());
+		assertNull(queue.poll());
+		assertEquals(0, queue.size());
+	}
+	
+	@Test
+	public void offerAllKeepsTheListOrder() {
+		final MpscLinkedQueue queue = new MpscLinkedQueue();
+		queue.offer("a");
+		
+		assertEquals(3, queue.offerAll(Arrays.<Object>asList("b", "c", "d")));
+		assertEquals(0, queue.offerAll(new ArrayList<Object>()));
+		
+		assertEquals("a", queue.poll());
+		assertEquals("b", queue.poll());
+		assertEquals("c", queue.poll());
+		assertEquals("d", queue.poll());
+		assertNull(queue.poll());
+	}
+	
+	@Test(timeout = 30000)
+	public void keepsTheOrderOfEachProducer() throws InterruptedException {
+		final MpscLinkedQueue queue = new MpscLinkedQueue();
+		final int producers = 4;
+		final int messages = 100000;
+		final List<Thread> threads = new ArrayList<Thread>();
+		
+		for (int p = 0; p < producers; p++) {
+			final int producer = p;
+			
+			threads.add(new Thread(new Runnable() {
+				public void run() {
+					for (int i = 0; i < messages; i++) {
+						if (i % 10 == 0) {
+							queue.offerAll(Arrays.<Object>asList(new int[] { producer, i }));
+						} else {
+							queue.offer(new int[] { producer, i });
+						}
+					}
+				}
+			}));
+		}
+		
+		for (final Thread thread : threads) {
+			thread.start();
+		}
+		
+		final int[] next = new int[producers];
+		int received = 0;
+		
+		// Single consumer, polling while the producers are running
+		while (received < producers * messages) {
+			final int[] msg = (int[]) queue.poll();
+			
+			if (msg == null) {
+				Thread.yield();
+				continue;
+			}
+			
+			assertEquals("Message of producer " + msg[0] + " out of order", next[msg[0]], msg[1]);
+			next[msg[0]]++;
+			received++;
+		}
+		
+		for (final Thread thread : threads) {
+			thread.join();
+		}
+		
+		assertTrue(queue.isEmpty());
+	}
+}
@@ -0,0 +1,60 @@
+/*
+ * Woody - Basic Actor model implementation
+ * 
+ * Copyright (C) 2017 Joaquim Rocha <jrocha@gmailbox.org>
+ * 
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package net.uiqui.woody.api.queue;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import net.uiqui.woody.api.error.WoodyException;
+
+public class QueueFactoryTest {
+	@Test
+	public void boundedQueues() {
+		assertTrue(QueueFactory.newQueue(QueueFactory.MPSC, 10) instanceof MpmcArrayQueue);
+		assertTrue(QueueFactory.newQueue(QueueFactory.BLOCKING, 10) instanceof BlockingMessageQueue);
+		assertTrue(QueueFactory.newQueue(QueueFactory.MPSC, 0) instanceof MpscLinkedQueue);
+	}
+	
+	@Test
+	public void customQueues() {
+		assertTrue(QueueFactory.newQueue(Custom.class.getName()) instanceof Custom);
+		
+		final MessageQueue queue = QueueFactory.newQueue(Custom.class.getName(), 1);
+		assertTrue(queue instanceof Custom);
+		assertTrue(queue.offer(1));
+		assertFalse(queue.offer(2));
+		assertEquals(1, queue.size());
+	}
+	
+	@Test(expected = WoodyException.class)
+	public void customQueuesNeedACapacityConstructor() {
+		QueueFactory.newQueue(MpscLinkedQueue.class.getName(), 10);
+	}
+	
+	public static class Custom extends BlockingMessageQueue {
+		public Custom() {
+		}
+		
+		public Custom(final int capacity) {
+			super(capacity);
+		}
+	}
+}
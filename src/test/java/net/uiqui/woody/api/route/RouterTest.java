@@ -0,0 +1,160 @@
+/*
+ * Woody - Basic Actor model implementation
+ * 
+ * Copyright (C) 2017 Joaquim Rocha <jrocha@gmailbox.org>
+ * 
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package net.uiqui.woody.api.route;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Method;
+
+import org.junit.Test;
+
+import net.uiqui.woody.annotations.Async;
+import net.uiqui.woody.annotations.Key;
+import net.uiqui.woody.api.ActorMailbox;
+import net.uiqui.woody.api.ActorWrapper;
+import net.uiqui.woody.api.queue.MpscLinkedQueue;
+
+public class RouterTest {
+	private static final int KEYS = 10000;
+	
+	@Test
+	public void roundRobinCyclesTheWorkers() {
+		final ActorMailbox[] workers = workers(0, 0, 0);
+		final Router router = new RoundRobinRouter();
+		
+		for (int i = 0; i < 9; i++) {
+			assertEquals(i % 3, router.route(null, null, workers));
+		}
+	}
+	
+	@Test
+	public void leastDepthPicksTheIdleWorker() {
+		final ActorMailbox[] workers = workers(3, 1, 0, 2);
+		final Router router = new LeastDepthRouter();
+		
+		for (int i = 0; i < 100; i++) {
+			assertEquals(2, router.route(null, null, workers));
+		}
+	}
+	
+	@Test
+	public void powerOfTwoNeverPicksTheMostLoadedWorker() {
+		final Router router = new PowerOfTwoRouter();
+		
+		assertEquals(0, router.route(null, null, workers(5)));
+		
+		final ActorMailbox[] pair = workers(5, 0);
+		final ActorMailbox[] workers = workers(0, 1, 2, 3);
+		
+		for (int i = 0; i < 100; i++) {
+			assertEquals(1, router.route(null, null, pair));
+			assertNotEquals(3, router.route(null, null, workers));
+		}
+	}
+	
+	@Test
+	public void consistentHashKeepsTheKeysOnTheSameWorker() {
+		final ActorMailbox[] workers = workers(0, 0, 0, 0);
+		final Router router = new ConsistentHashRouter(workers.length);
+		final int[] keys = new int[workers.length];
+		
+		for (int i = 0; i < KEYS; i++) {
+			final Object[] args = new Object[] { "key-" + i };
+			final int worker = router.route(null, args, workers);
+			
+			assertEquals(worker, router.route(null, args, workers));
+			keys[worker]++;
+		}
+		
+		for (final int count : keys) {
+			assertTrue("Unbalanced ring " + count, count > KEYS / 8 && count < KEYS / 2);
+		}
+	}
+	
+	@Test
+	public void consistentHashMovesFewKeysWhenAWorkerIsAdded() {
+		final ConsistentHashRouter four = new ConsistentHashRouter(4);
+		final ConsistentHashRouter five = new ConsistentHashRouter(5);
+		int moved = 0;
+		
+		for (int i = 0; i < KEYS; i++) {
+			final String key = "key-" + i;
+			
+			if (four.ownerOf(key) != five.ownerOf(key)) {
+				assertEquals(4, five.ownerOf(key));
+				moved++;
+			}
+		}
+		
+		// Ideally a fifth of the keys
+		assertTrue("Moved " + moved + " keys", moved < KEYS * 3 / 10);
+	}
+	
+	@Test
+	public void keyRouterUsesTheKeyArgument() throws NoSuchMethodException {
+		final ActorMailbox[] workers = workers(0, 0, 0, 0);
+		final Router router = new KeyRouter(Storage.class, workers.length);
+		final ConsistentHashRouter ring = new ConsistentHashRouter(workers.length);
+		final Method put = Storage.class.getMethod("put", Object.class, String.class);
+		
+		for (int i = 0; i < 100; i++) {
+			final String key = "key-" + i;
+			assertEquals(ring.ownerOf(key), router.route(put, new Object[] { i, key }, workers));
+		}
+	}
+	
+	@Test
+	public void keyRouterUsesRoundRobinWithoutKey() throws NoSuchMethodException {
+		final ActorMailbox[] workers = workers(0, 0, 0);
+		final Router router = new KeyRouter(Storage.class, workers.length);
+		final Method clear = Storage.class.getMethod("clear");
+		
+		for (int i = 0; i < 9; i++) {
+			assertEquals(i % 3, router.route(clear, new Object[0], workers));
+		}
+	}
+	
+	// Mailboxes that are never scheduled, with the given number of queued messages
+	private static ActorMailbox[] workers(final int... loads) {
+		final ActorMailbox[] workers = new ActorMailbox[loads.length];
+		
+		for (int i = 0; i < loads.length; i++) {
+			final MpscLinkedQueue queue = new MpscLinkedQueue();
+			
+			for (int j = 0; j < loads[i]; j++) {
+				queue.offer(j);
+			}
+			
+			workers[i] = new ActorMailbox(new ActorWrapper("worker-" + i, new Storage()), queue);
+		}
+		
+		return workers;
+	}
+	
+	public static class Storage {
+		@Async
+		public void put(final Object value, @Key final String key) {
+		}
+		
+		@Async
+		public void clear() {
+		}
+	}
+}
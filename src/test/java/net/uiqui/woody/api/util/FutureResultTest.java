@@ -0,0 +1,226 @@
+/*
+ * Woody - Basic Actor model implementation
+ * 
+ * Copyright (C) 2017 Joaquim Rocha <jrocha@gmailbox.org>
+ * 
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package net.uiqui.woody.api.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class FutureResultTest {
+	@Test
+	public void returnsTheResult() throws Exception {
+		final FutureResult<String> future = new FutureResult<String>();
+		future.setResult("ok");
+		
+		assertTrue(future.isDone());
+		assertEquals("ok", future.get());
+		assertEquals("ok", future.get(1, TimeUnit.MILLISECONDS));
+	}
+	
+	@Test
+	public void reportsTheException() throws InterruptedException {
+		final FutureResult<String> future = new FutureResult<String>();
+		final Exception cause = new IllegalStateException();
+		future.setException(cause);
+		
+		try {
+			future.get();
+			fail("The exception wasn't reported");
+		} catch (final ExecutionException e) {
+			assertSame(cause, e.getCause());
+		}
+	}
+	
+	@Test
+	public void completesOnlyOnce() throws Exception {
+		final CountingResult<String> future = new CountingResult<String>();
+		future.setResult("first");
+		future.setResult("second");
+		future.setException(new IllegalStateException());
+		
+		assertFalse(future.cancel(true));
+		assertEquals("first", future.get());
+		assertEquals(1, future.done.get());
+	}
+	
+	@Test
+	public void runningRequestsCantBeCanceled() throws Exception {
+		final FutureResult<String> future = new FutureResult<String>();
+		
+		assertTrue(future.tryRun());
+		assertFalse(future.cancel(true));
+		assertFalse(future.tryRun());
+		
+		future.setResult("ok");
+		assertEquals("ok", future.get());
+	}
+	
+	@Test
+	public void canceledRequestsDontRun() throws Exception {
+		final CountingResult<String> future = new CountingResult<String>();
+		
+		assertTrue(future.cancel(false));
+		assertTrue(future.isCancelled());
+		assertFalse(future.tryRun());
+		
+		future.setResult("ignored");
+		assertEquals(1, future.done.get());
+		
+		try {
+			future.get();
+			fail("The request wasn't canceled");
+		} catch (final CancellationException e) {
+		}
+	}
+	
+	@Test(timeout = 10000)
+	public void timesOut() throws Exception {
+		final FutureResult<String> future = new FutureResult<String>();
+		final long start = System.nanoTime();
+		
+		try {
+			future.get(50, TimeUnit.MILLISECONDS);
+			fail("The get didn't time out");
+		} catch (final TimeoutException e) {
+		}
+		
+		assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(50));
+		
+		// The expired waiter doesn't prevent the completion
+		future.setResult("ok");
+		assertEquals("ok", future.get());
+	}
+	
+	@Test(timeout = 10000)
+	public void wakesUpEveryWaiter() throws Exception {
+		final FutureResult<Integer> future = new FutureResult<Integer>();
+		final int waiters = 8;
+		final CountDownLatch ready = new CountDownLatch(waiters);
+		final AtomicInteger total = new AtomicInteger();
+		final List<Thread> threads = new ArrayList<Thread>();
+		
+		for (int i = 0; i < waiters; i++) {
+			final boolean timed = i % 2 == 0;
+			
+			threads.add(new Thread(new Runnable() {
+				public void run() {
+					ready.countDown();
+					
+					try {
+						total.addAndGet(timed ? future.get(10, TimeUnit.SECONDS) : future.get());
+					} catch (final Exception e) {
+						throw new RuntimeException(e);
+					}
+				}
+			}));
+		}
+		
+		for (final Thread thread : threads) {
+			thread.start();
+		}
+		
+		ready.await();
+		Thread.sleep(50);
+		future.setResult(1);
+		
+		for (final Thread thread : threads) {
+			thread.join();
+		}
+		
+		assertEquals(waiters, total.get());
+	}
+	
+	@Test(timeout = 10000)
+	public void interruptsTheWaiter() throws Exception {
+		final FutureResult<String> future = new FutureResult<String>();
+		final AtomicInteger interrupted = new AtomicInteger();
+		
+		final Thread waiter = new Thread(new Runnable() {
+			public void run() {
+				try {
+					future.get();
+				} catch (final InterruptedException e) {
+					interrupted.incrementAndGet();
+				} catch (final ExecutionException e) {
+				}
+			}
+		});
+		
+		waiter.start();
+		Thread.sleep(50);
+		waiter.interrupt();
+		waiter.join();
+		
+		assertEquals(1, interrupted.get());
+	}
+	
+	/*
+	 * Every worker of the pool waits on a request completed by a task queued behind them,
+	 * it only completes if the pool adds compensation threads for the blocked workers
+	 */
+	@Test(timeout = 10000)
+	public void forkJoinWorkersDontStarveThePool() throws Exception {
+		final ForkJoinPool pool = new ForkJoinPool(1);
+		final FutureResult<String> future = new FutureResult<String>();
+		
+		try {
+			final ForkJoinTask<String> waiting = pool.submit(new Callable<String>() {
+				public String call() throws Exception {
+					return future.get();
+				}
+			});
+			
+			Thread.sleep(50);
+			
+			pool.submit(new Runnable() {
+				public void run() {
+					future.setResult("ok");
+				}
+			});
+			
+			assertEquals("ok", waiting.get());
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+	
+	private static class CountingResult<T> extends FutureResult<T> {
+		private final AtomicInteger done = new AtomicInteger();
+		
+		@Override
+		protected void done() {
+			done.incrementAndGet();
+		}
+	}
+}
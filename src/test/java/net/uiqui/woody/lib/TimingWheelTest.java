@@ -0,0 +1,196 @@
+/*
+ * Woody - Basic Actor model implementation
+ * 
+ * Copyright (C) 2017 Joaquim Rocha <jrocha@gmailbox.org>
+ * 
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package net.uiqui.woody.lib;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.AfterClass;
+import org.junit.Test;
+
+/*
+ * The wheel thread never stops, so all the tests share the same wheel,
+ * with 10ms ticks and 8 buckets (one round every 80ms)
+ */
+public class TimingWheelTest {
+	private static final long TICK = 10L;
+	
+	private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool();
+	private static final TimingWheel WHEEL = new TimingWheel(TICK, TimeUnit.MILLISECONDS, 8, EXECUTOR);
+	
+	@AfterClass
+	public static void tearDown() {
+		EXECUTOR.shutdownNow();
+	}
+	
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsInvalidTicks() {
+		new TimingWheel(0, TimeUnit.MILLISECONDS, 8, EXECUTOR);
+	}
+	
+	@Test(timeout = 10000)
+	public void runsOnceAfterTheDelay() throws InterruptedException {
+		final Counter counter = new Counter();
+		final long start = System.nanoTime();
+		final Timer timer = WHEEL.schedule(50, 0, TimeUnit.MILLISECONDS, counter);
+		
+		assertTrue(counter.fired.await(5, TimeUnit.SECONDS));
+		assertTrue(elapsedMillis(start) >= 50 - TICK);
+		
+		Thread.sleep(100);
+		assertEquals(1, counter.runs.get());
+		assertFalse(timer.cancel());
+		assertFalse(timer.isCancelled());
+	}
+	
+	@Test(timeout = 10000)
+	public void waitsForTheRoundsOfLongDelays() throws InterruptedException {
+		final Counter counter = new Counter();
+		final long start = System.nanoTime();
+		WHEEL.schedule(300, 0, TimeUnit.MILLISECONDS, counter);
+		
+		assertTrue(counter.fired.await(5, TimeUnit.SECONDS));
+		assertTrue(elapsedMillis(start) >= 300 - TICK);
+	}
+	
+	@Test(timeout = 10000)
+	public void canceledTimersNeverRun() throws InterruptedException {
+		final Counter counter = new Counter();
+		final Timer timer = WHEEL.schedule(50, 0, TimeUnit.MILLISECONDS, counter);
+		
+		assertTrue(timer.cancel());
+		assertTrue(timer.isCancelled());
+		assertFalse(timer.cancel());
+		
+		Thread.sleep(150);
+		assertEquals(0, counter.runs.get());
+	}
+	
+	@Test(timeout = 10000)
+	public void intervalsRunUntilCanceled() throws InterruptedException {
+		final Counter counter = new Counter(5);
+		final Timer timer = WHEEL.schedule(20, 20, TimeUnit.MILLISECONDS, counter);
+		
+		assertTrue(counter.fired.await(5, TimeUnit.SECONDS));
+		assertTrue(timer.cancel());
+		
+		// A run may already be on the executor
+		Thread.sleep(50);
+		final int runs = counter.runs.get();
+		Thread.sleep(150);
+		assertEquals(runs, counter.runs.get());
+	}
+	
+	@Test(timeout = 10000)
+	public void slowCommandsDontDelayOtherTimers() throws InterruptedException {
+		final CountDownLatch release = new CountDownLatch(1);
+		final Counter counter = new Counter();
+		
+		WHEEL.schedule(10, 0, TimeUnit.MILLISECONDS, new Runnable() {
+			public void run() {
+				try {
+					release.await(5, TimeUnit.SECONDS);
+				} catch (final InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		});
+		
+		final long start = System.nanoTime();
+		WHEEL.schedule(50, 0, TimeUnit.MILLISECONDS, counter);
+		
+		try {
+			assertTrue(counter.fired.await(5, TimeUnit.SECONDS));
+			assertTrue(elapsedMillis(start) < 1000);
+		} finally {
+			release.countDown();
+		}
+	}
+	
+	@Test(timeout = 10000)
+	public void periodicRunsNeverOverlap() throws InterruptedException {
+		final AtomicInteger running = new AtomicInteger();
+		final AtomicInteger overlaps = new AtomicInteger();
+		final CountDownLatch fired = new CountDownLatch(5);
+		
+		// Each run takes three periods
+		final Timer timer = WHEEL.schedule(10, 10, TimeUnit.MILLISECONDS, new Runnable() {
+			public void run() {
+				if (running.incrementAndGet() > 1) {
+					overlaps.incrementAndGet();
+				}
+				
+				try {
+					Thread.sleep(30);
+				} catch (final InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				
+				running.decrementAndGet();
+				fired.countDown();
+			}
+		});
+		
+		assertTrue(fired.await(5, TimeUnit.SECONDS));
+		timer.cancel();
+		assertEquals(0, overlaps.get());
+	}
+	
+	@Test(timeout = 10000)
+	public void commandErrorsDontStopTheWheel() throws InterruptedException {
+		final Counter counter = new Counter();
+		
+		WHEEL.schedule(10, 0, TimeUnit.MILLISECONDS, new Runnable() {
+			public void run() {
+				throw new IllegalStateException("Expected");
+			}
+		});
+		
+		WHEEL.schedule(50, 0, TimeUnit.MILLISECONDS, counter);
+		assertTrue(counter.fired.await(5, TimeUnit.SECONDS));
+	}
+	
+	private static long elapsedMillis(final long start) {
+		return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+	}
+	
+	private static class Counter implements Runnable {
+		private final AtomicInteger runs = new AtomicInteger();
+		private final CountDownLatch fired;
+		
+		public Counter() {
+			this(1);
+		}
+		
+		public Counter(final int count) {
+			this.fired = new CountDownLatch(count);
+		}
+		
+		public void run() {
+			runs.incrementAndGet();
+			fired.countDown();
+		}
+	}
+}